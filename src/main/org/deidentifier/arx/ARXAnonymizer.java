@@ -18,16 +18,26 @@
 package org.deidentifier.arx;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.deidentifier.arx.ARXConfiguration.HeuristicSearchAlgorithm;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithmImpl;
 import org.deidentifier.arx.algorithm.FLASHStrategy;
+import org.deidentifier.arx.algorithm.GeneticAlgorithm;
 import org.deidentifier.arx.algorithm.LIGHTNINGAlgorithm;
 import org.deidentifier.arx.criteria.DDisclosurePrivacy;
 import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
@@ -35,6 +45,9 @@ import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
+import org.deidentifier.arx.framework.check.RemoteNodeChecker;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -82,6 +95,9 @@ public class ARXAnonymizer {
         /** The global optimum */
         final Transformation    optimum;
 
+        /** The number of checks per type of transition */
+        final long[]            transitions;
+
         /**
          * Creates a new instance.
          *
@@ -91,13 +107,15 @@ public class ARXAnonymizer {
          * @param manager the manager
          * @param algorithm
          * @param time
+         * @param transitions
          */
         Result(final Metric<?> metric,
                final NodeChecker checker,
                final SolutionSpace solutionSpace,
                final DataManager manager,
                final AbstractAlgorithm algorithm,
-               final long time) {
+               final long time,
+               final long[] transitions) {
             this.metric = metric;
             this.checker = checker;
             this.solutionSpace = solutionSpace;
@@ -105,6 +123,7 @@ public class ARXAnonymizer {
             this.algorithm = algorithm;
             this.time = time;
             this.optimum = algorithm.getGlobalOptimum();
+            this.transitions = transitions;
         }
 
         /**
@@ -118,7 +137,7 @@ public class ARXAnonymizer {
 
 		    // Create lattice
 	        final ARXLattice lattice = new ARXLattice(solutionSpace,
-	                                                  (algorithm instanceof FLASHAlgorithmImpl),
+	                                                  (algorithm instanceof FLASHAlgorithmImpl) && !algorithm.isStopped(),
 	                                                  optimum,
 	                                                  manager.getDataGeneralized().getHeader(),
 	                                                  config.getInternalConfiguration());
@@ -132,16 +151,26 @@ public class ARXAnonymizer {
                                  config,
                                  lattice,
                                  System.currentTimeMillis() - time,
-                                 solutionSpace);      
+                                 solutionSpace,
+                                 transitions);      
 		}
     }
 
     /** History size. */
     private int         historySize          = 200;
 
+    /** Size of the second tier of the history in bytes. */
+    private long        historyDiskSize      = 0L;
+
+    /** Size of the snapshots in the history in bytes, 0 if the number of snapshots is limited. */
+    private long        historyMemorySize    = 0L;
+
     /** The listener, if any. */
     private ARXListener listener             = null;
 
+    /** The listener for new optima, if any. */
+    private ARXOptimumListener optimumListener = null;
+
     /** Snapshot size. */
     private double      snapshotSizeDataset  = 0.2d;
 
@@ -151,6 +180,24 @@ public class ARXAnonymizer {
     /** The maximal number of QIs that can be processed. */
     private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
 
+    /** The number of threads used for checking transformations. */
+    private int         numberOfThreads      = 1;
+
+    /** The number of threads used for transforming the dataset within a single check. */
+    private int         numberOfThreadsPerTransformation = 1;
+
+    /** The lattice of a previous anonymization process used for warm-starting the search, if any. */
+    private ARXLattice  warmStart            = null;
+
+    /** The addresses of the workers used for checking transformations in other processes. */
+    private List<InetSocketAddress> workers  = new ArrayList<InetSocketAddress>();
+
+    /** The secret shared with the workers. */
+    private String                  workerSecret = null;
+
+    /** The maximal number of transformations checked for warm-starting the search. */
+    private static final int WARM_START_CANDIDATES = 10;
+
 
     /**
      * Creates a new anonymizer with the default configuration.
@@ -214,6 +261,25 @@ public class ARXAnonymizer {
         return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
     }
     
+    /**
+     * Returns the size of the second tier of the history, which is backed by a memory-mapped file, in bytes.
+     * 
+     * @return The size
+     */
+    public long getHistoryDiskSize() {
+        return historyDiskSize;
+    }
+
+    /**
+     * Returns the maximum size of the snapshots stored in the history in bytes, 0 if the number of
+     * snapshots is limited instead.
+     * 
+     * @return The size
+     */
+    public long getHistoryMemorySize() {
+        return historyMemorySize;
+    }
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -251,7 +317,61 @@ public class ARXAnonymizer {
     }
 
     /**
-     * Sets the maximum number of snapshots allowed to store in the history.
+     * Returns the number of threads used for checking transformations.
+     * @return
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Returns the number of threads used for transforming the dataset within a single check.
+     * @return
+     */
+    public int getNumberOfThreadsPerTransformation() {
+        return numberOfThreadsPerTransformation;
+    }
+
+    /**
+     * Returns the addresses of the workers used for checking transformations in other processes.
+     * @return
+     */
+    public List<InetSocketAddress> getWorkers() {
+        return new ArrayList<InetSocketAddress>(workers);
+    }
+
+    /**
+     * Sets the size of the second tier of the history in bytes. Snapshots which are evicted from the
+     * history are moved into this tier, which is backed by a memory-mapped temporary file. If multiple
+     * threads are used, each thread uses a separate file of this size. The size of a single file is
+     * limited to Integer.MAX_VALUE bytes. Set to 0 to disable the second tier [default=0].
+     * 
+     * @param bytes
+     *            The size
+     */
+    public void setHistoryDiskSize(final long bytes) {
+        if (bytes < 0) { throw new IllegalArgumentException("Size of the second tier of the history must be positive or 0"); }
+        this.historyDiskSize = bytes;
+    }
+
+    /**
+     * Sets the maximum size of the snapshots stored in the history in bytes. Snapshots are stored in a
+     * compressed (delta and varint encoded) form. If a size is set, it limits the history instead of the
+     * number of snapshots set with {@link #setHistorySize(int)}, which allows to store more snapshots
+     * with the same amount of memory. If multiple threads are used, each thread uses a separate
+     * history of this size. Set to 0 to limit the number of snapshots instead [default=0].
+     * 
+     * @param bytes
+     *            The size
+     */
+    public void setHistoryMemorySize(final long bytes) {
+        if (bytes < 0) { throw new IllegalArgumentException("Size of the history must be positive or 0"); }
+        this.historyMemorySize = bytes;
+    }
+
+    /**
+     * Sets the maximum number of snapshots allowed to store in the history. Snapshots are stored in a
+     * compressed (delta and varint encoded) form. Set to 0 to disable the history.
      * 
      * @param historySize
      *            The size
@@ -271,6 +391,18 @@ public class ARXAnonymizer {
         this.listener = listener;
     }
 
+    /**
+     * Sets a listener which is notified about each new optimum found during the search. The
+     * listener may stop the search early, in which case the best transformation found so far
+     * is returned as the global optimum and the solution space is not classified completely.
+     * 
+     * @param listener
+     *            the new listener, if any
+     */
+    public void setOptimumListener(final ARXOptimumListener listener) {
+        this.optimumListener = listener;
+    }
+
     /**
      * Sets the maximum size of a snapshot relative to the dataset size.
      *
@@ -302,6 +434,72 @@ public class ARXAnonymizer {
         this.maxQuasiIdentifiers = maxQuasiIdentifiers;
     }
 
+    /**
+     * Sets the number of threads used for checking transformations [default=1]. If more than
+     * one thread is used, the search algorithm will check several transformations in parallel.
+     * The best-first heuristic search will additionally expand several transformations at once.
+     * Each thread uses its own buffers and history, which increases memory requirements accordingly.
+     * 
+     * @param numberOfThreads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads < 1) { throw new IllegalArgumentException("Number of threads must be positive"); }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads used for transforming the dataset within a single check [default=1].
+     * If more than one thread is used, transformations which can neither utilize rollups nor snapshots,
+     * e.g. the bottom of the search space, are applied to partitions of large datasets in parallel.
+     * 
+     * @param numberOfThreads
+     */
+    public void setNumberOfThreadsPerTransformation(int numberOfThreads) {
+        if (numberOfThreads < 1) { throw new IllegalArgumentException("Number of threads must be positive"); }
+        this.numberOfThreadsPerTransformation = numberOfThreads;
+    }
+
+    /**
+     * Sets the lattice of a previous anonymization process for warm-starting the search [default=null].
+     * The previous process must have used the same quasi-identifiers and generalization hierarchies,
+     * while the data and the remaining parameters may differ. Transformations which have been checked
+     * and found to be privacy-preserving in the previous process are checked first, in order of their
+     * previous information loss, until one of them is privacy-preserving again. This transformation is
+     * used as an initial optimum, which enables pruning based on utility from the beginning of the search.
+     * The warm start is only used by the heuristic search algorithms. The genetic algorithm adds the
+     * transformations to its initial population instead. The optimal algorithm classifies the solution
+     * space in an order which is not improved by an initial optimum.
+     * 
+     * @param lattice
+     *            the lattice, if any
+     */
+    public void setWarmStart(final ARXLattice lattice) {
+        this.warmStart = lattice;
+    }
+
+    /**
+     * Sets the addresses of workers, which check transformations in other processes, e.g. on other
+     * machines [default=empty]. Workers are started with {@link ARXWorker}. For each worker, a replica of
+     * the encoded data is sent to the worker before the search starts. The workers are used in addition to
+     * the threads configured with {@link #setNumberOfThreads(int)}, in the same way in which these threads
+     * are used by the search algorithms. An address may be specified multiple times, which creates one checker
+     * per occurrence in the respective worker. Workers only accept connections from processes which know
+     * the secret they have been started with.
+     * <br>
+     * <br>
+     * <b>Warning:</b> the replica contains the unanonymized data and it is transmitted without encryption.
+     * Workers must only be used within trusted networks.
+     * 
+     * @param workers
+     * @param secret The secret shared with the workers
+     */
+    public void setWorkers(List<InetSocketAddress> workers, String secret) {
+        if (workers == null) { throw new IllegalArgumentException("Workers must not be null"); }
+        if (!workers.isEmpty() && (secret == null || secret.isEmpty())) { throw new IllegalArgumentException("Secret must not be empty"); }
+        this.workers = new ArrayList<InetSocketAddress>(workers);
+        this.workerSecret = secret;
+    }
+
     /**
      * Reset a previous lattice and run the algorithm .
      *
@@ -332,6 +530,8 @@ public class ARXAnonymizer {
                                                     snapshotSizeDataset,
                                                     snapshotSizeSnapshot,
                                                     solutionSpace);
+        checker.getHistory().setDiskSize(historyDiskSize);
+        checker.getHistory().setMemorySize(historyMemorySize);
 
         // Initialize the metric
         config.getMetric().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
@@ -342,19 +542,52 @@ public class ARXAnonymizer {
                                                    solutionSpace,
                                                    checker);
         algorithm.setListener(listener);
+        algorithm.setOptimumListener(optimumListener);
+        if (warmStart != null) {
+            algorithm.setWarmStart(getWarmStart(warmStart, manager, solutionSpace));
+        }
 
+        // Build a pool of checkers for parallel and distributed execution
+        NodeCheckerPool pool = null;
+        if (numberOfThreads > 1 || !workers.isEmpty()) {
+            pool = new NodeCheckerPool(manager,
+                                       config.getMetric(),
+                                       config.getInternalConfiguration(),
+                                       historySize,
+                                       snapshotSizeDataset,
+                                       snapshotSizeSnapshot,
+                                       solutionSpace,
+                                       numberOfThreads > 1 ? numberOfThreads : 0,
+                                       getRemoteCheckers(manager, config));
+            pool.setHistoryDiskSize(historyDiskSize);
+            pool.setHistoryMemorySize(historyMemorySize);
+            algorithm.setCheckerPool(pool);
+        }
         
         // Execute
 
         final long time = System.currentTimeMillis();
-        algorithm.traverse();
+        checker.setNumberOfThreadsPerTransformation(numberOfThreadsPerTransformation);
+        final long[] transitions = new long[TransitionType.values().length];
+        try {
+            algorithm.traverse();
+        } finally {
+            checker.setNumberOfThreadsPerTransformation(1);
+            for (TransitionType type : TransitionType.values()) {
+                transitions[type.ordinal()] = checker.getNumberOfTransitions(type) +
+                                              (pool != null ? pool.getNumberOfTransitions(type) : 0L);
+            }
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
         
         // Deactivate history to prevent bugs when sorting data
         checker.getHistory().reset();
         checker.getHistory().setSize(0);
         
         // Return the result
-        return new Result(config.getMetric(), checker, solutionSpace, manager, algorithm, time);
+        return new Result(config.getMetric(), checker, solutionSpace, manager, algorithm, time, transitions);
     }
 
     /**
@@ -549,8 +782,13 @@ public class ARXAnonymizer {
                                           final NodeChecker checker) {
         
         if (config.isHeuristicSearchEnabled() ||
-            solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
-            return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
+            (config.getHeuristicSearchThreshold() != Integer.MAX_VALUE &&
+             solutionSpace.getSize() > config.getHeuristicSearchThreshold())) {
+            if (config.getHeuristicSearchAlgorithm() == HeuristicSearchAlgorithm.GENETIC) {
+                return GeneticAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
+            } else {
+                return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
+            }
             
         } else {
             FLASHStrategy strategy = new FLASHStrategy(solutionSpace, manager.getHierarchies());
@@ -558,6 +796,91 @@ public class ARXAnonymizer {
         }
     }
 
+    /**
+     * Connects to all workers
+     * 
+     * @param manager
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    private List<RemoteNodeChecker> getRemoteCheckers(final DataManager manager,
+                                                      final ARXConfiguration config) throws IOException {
+        List<RemoteNodeChecker> result = new ArrayList<RemoteNodeChecker>();
+        try {
+            for (InetSocketAddress worker : workers) {
+                result.add(new RemoteNodeChecker(worker,
+                                                 workerSecret,
+                                                 manager,
+                                                 config,
+                                                 historySize,
+                                                 snapshotSizeDataset,
+                                                 snapshotSizeSnapshot));
+            }
+        } catch (IOException e) {
+            for (RemoteNodeChecker checker : result) {
+                checker.close();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            for (RemoteNodeChecker checker : result) {
+                checker.close();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the transformations which are checked for warm-starting the search.
+     * 
+     * @param lattice
+     * @param manager
+     * @param solutionSpace
+     * @return
+     */
+    private List<Transformation> getWarmStart(final ARXLattice lattice,
+                                              final DataManager manager,
+                                              final SolutionSpace solutionSpace) {
+
+        // Check
+        if (!Arrays.equals(lattice.getBottom().getQuasiIdentifyingAttributes(), manager.getDataGeneralized().getHeader()) ||
+            !Arrays.equals(lattice.getBottom().getTransformation(), manager.getHierarchiesMinLevels()) ||
+            !Arrays.equals(lattice.getTop().getTransformation(), manager.getHierarchiesMaxLevels())) {
+            throw new IllegalArgumentException("Lattice for warm start does not match the quasi-identifiers or hierarchies");
+        }
+
+        // Collect transformations which have been checked and found to be privacy-preserving
+        List<ARXNode> nodes = new ArrayList<ARXNode>();
+        for (ARXNode[] level : lattice.getLevels()) {
+            for (ARXNode node : level) {
+                if (node.isChecked() && node.getAnonymity() == Anonymity.ANONYMOUS &&
+                    node.getMaximumInformationLoss() != null) {
+                    nodes.add(node);
+                }
+            }
+        }
+
+        // Sort by information loss, previous optimum first
+        final ARXNode optimum = lattice.getOptimum();
+        Collections.sort(nodes, new Comparator<ARXNode>() {
+            @Override
+            public int compare(ARXNode node1, ARXNode node2) {
+                if (node1 == optimum || node2 == optimum) {
+                    return node1 == node2 ? 0 : (node1 == optimum ? -1 : +1);
+                }
+                return node1.getMaximumInformationLoss().compareTo(node2.getMaximumInformationLoss());
+            }
+        });
+
+        // Convert
+        List<Transformation> result = new ArrayList<Transformation>();
+        for (int i = 0; i < nodes.size() && i < WARM_START_CANDIDATES; i++) {
+            result.add(solutionSpace.getTransformation(nodes.get(i).getTransformation()));
+        }
+        return result;
+    }
+
     /**
      * Prepares the data manager.
      *
@@ -221,6 +221,23 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.isSuppressionAlwaysEnabled();
         }
 
+        /**
+         * Returns the number of bits required for encoding the values of each generalized
+         * attribute, if the keys of the groupify operator can be packed into 63 bits, null otherwise.
+         * @return
+         */
+        public int[] getGroupifyKeyBits() {
+            return config.getGroupifyKeyBits();
+        }
+
+        /**
+         * Returns whether the groupify operator uses open addressing and reuses entries
+         * @return
+         */
+        public boolean isGroupifyOpenAddressingEnabled() {
+            return config.isGroupifyOpenAddressingEnabled();
+        }
+
         /**
          * Do we guarantee optimality for sample-based criteria?
          */
@@ -239,6 +256,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
     }
 
+    /**
+     * Heuristic search algorithms.
+     */
+    public static enum HeuristicSearchAlgorithm {
+        
+        /**  Best-first search with periodic depth-first dives */
+        BEST_FIRST,
+        
+        /**  Population-based evolutionary search */
+        GENETIC
+    }
+
     /**
      * Monotonicity.
      */
@@ -366,6 +395,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchTimeLimit              = 30000;
 
+    /** The heuristic search algorithm */
+    private HeuristicSearchAlgorithm           heuristicSearchAlgorithm              = HeuristicSearchAlgorithm.BEST_FIRST;
+
+    /** Should the groupify operator use open addressing and reuse entries? */
+    private Boolean                            groupifyOpenAddressingEnabled         = false;
+
+    /** Should the groupify operator pack keys into longs, if possible? */
+    private Boolean                            groupifyKeyPackingEnabled             = false;
+
+    /** The number of bits required for encoding the values of each generalized attribute. */
+    private transient int[]                    groupifyKeyBits                       = null;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -467,6 +508,10 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.heuristicSearchAlgorithm = this.heuristicSearchAlgorithm;
+        result.groupifyOpenAddressingEnabled = this.groupifyOpenAddressingEnabled;
+        result.groupifyKeyPackingEnabled = this.groupifyKeyPackingEnabled;
+        result.groupifyKeyBits = this.groupifyKeyBits;
         result.utilityBasedMicroaggregation = this.utilityBasedMicroaggregation;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
@@ -573,6 +618,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
     }
     
+    /**
+     * Returns the algorithm used for heuristic search. The default is a best-first search.
+     * @return
+     */
+    public HeuristicSearchAlgorithm getHeuristicSearchAlgorithm() {
+        if (this.heuristicSearchAlgorithm == null) {
+            this.heuristicSearchAlgorithm = HeuristicSearchAlgorithm.BEST_FIRST;
+        }
+        return this.heuristicSearchAlgorithm;
+    }
+
     /**
      * When the size of the solution space exceeds the returned number of transformations,
      * ARX will use a heuristic search strategy. The default is 100.000.
@@ -718,6 +774,32 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return (suppressedAttributeTypes & (1 << type.getType())) != 0;
     }
 
+    /**
+     * Returns whether the groupify operator packs the keys of equivalence classes into longs, if
+     * the values of all generalized attributes fit into 63 bits. The default is false.
+     * @return
+     */
+    public boolean isGroupifyKeyPackingEnabled() {
+        // Ensure backwards compatibility
+        if (this.groupifyKeyPackingEnabled == null) {
+            this.groupifyKeyPackingEnabled = false;
+        }
+        return this.groupifyKeyPackingEnabled;
+    }
+
+    /**
+     * Returns whether equivalence classes are grouped with a hash table that uses open addressing
+     * and which reuses entries between transformations. The default is false.
+     * @return
+     */
+    public boolean isGroupifyOpenAddressingEnabled() {
+        // Ensure backwards compatibility
+        if (this.groupifyOpenAddressingEnabled == null) {
+            this.groupifyOpenAddressingEnabled = false;
+        }
+        return this.groupifyOpenAddressingEnabled;
+    }
+
     /**
      * Returns whether ARX will use a heuristic search strategy. The default is false.
      * @return
@@ -822,6 +904,40 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.attributeWeights.put(attribute, weight);
     }
 
+    /**
+     * Sets whether the groupify operator packs the keys of equivalence classes into longs, if the
+     * values of all generalized attributes fit into 63 bits. Packed keys are used for hashing and
+     * comparing keys, which is faster than processing the arrays element by element. This does not
+     * reduce memory consumption: the data is still stored with 32 bits per value and each class
+     * additionally stores its packed key. The default is false.
+     * @param enabled
+     */
+    public void setGroupifyKeyPackingEnabled(boolean enabled) {
+        this.groupifyKeyPackingEnabled = enabled;
+    }
+
+    /**
+     * Sets whether equivalence classes are grouped with a hash table that uses open addressing
+     * and which reuses entries between transformations. This reduces the number of objects
+     * allocated when checking transformations that result in a large number of classes.
+     * The default is false.
+     * @param enabled
+     */
+    public void setGroupifyOpenAddressingEnabled(boolean enabled) {
+        this.groupifyOpenAddressingEnabled = enabled;
+    }
+
+    /**
+     * Sets the algorithm used for heuristic search. The default is a best-first search.
+     * A genetic algorithm may find better solutions within the time limit for data with
+     * a large number of quasi-identifiers.
+     * @param algorithm
+     */
+    public void setHeuristicSearchAlgorithm(HeuristicSearchAlgorithm algorithm) {
+        if (algorithm == null) { throw new IllegalArgumentException("Parameter must not be null"); }
+        this.heuristicSearchAlgorithm = algorithm;
+    }
+
     /**
      * Sets whether ARX will use a heuristic search strategy. The default is false.
      * @param heuristicSearchEnabled
@@ -833,7 +949,9 @@ public class ARXConfiguration implements Serializable, Cloneable {
 
     /**
      * When the size of the solution space exceeds the given number of transformations,
-     * ARX will use a heuristic search strategy. The default is 100.000.
+     * ARX will use a heuristic search strategy. The default is 100.000. If the threshold is
+     * Integer.MAX_VALUE, a heuristic search strategy will only be used if it has been enabled
+     * explicitly, which allows to search larger solution spaces for optimal solutions.
      * @param numberOfTransformations
      * @return
      */
@@ -1007,6 +1125,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.bCriteria;
     }
     
+    /**
+     * Returns the number of bits required for encoding the values of each generalized
+     * attribute, if the keys of the groupify operator can be packed into 63 bits, null otherwise.
+     * You may only call this, after the config has be initialized.
+     *
+     * @return
+     */
+    protected int[] getGroupifyKeyBits() {
+        return this.groupifyKeyBits;
+    }
+
     /**
      * Returns the specific length of each entry in a snapshot.
      *
@@ -1148,6 +1277,20 @@ public class ARXConfiguration implements Serializable, Cloneable {
             this.bCriteria = this.getCriteria(SampleBasedCriterion.class).toArray(new SampleBasedCriterion[0]);
         }
 
+        // Compute the number of bits required for encoding each generalized attribute
+        this.groupifyKeyBits = null;
+        String[][] mapping = manager.getDataGeneralized().getDictionary().getMapping();
+        if (mapping != null && this.isGroupifyKeyPackingEnabled()) {
+            int[] bits = new int[mapping.length];
+            int total = 0;
+            for (int i = 0; i < mapping.length; i++) {
+                int size = mapping[i].length;
+                bits[i] = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+                total += bits[i];
+            }
+            this.groupifyKeyBits = total <= 63 ? bits : null;
+        }
+
         // Compute snapshot length
         this.snapshotLength = 2;
         if (this.requires(REQUIREMENT_DISTRIBUTION)) {
@@ -744,8 +744,8 @@ public class ARXLattice implements Serializable {
             headermap.put(header[i], index++);
         }
         
-        // Build lattice
-        if (complete) {
+        // Build lattice, large solution spaces are only represented by materialized transformations
+        if (complete && solutions.getSize() <= Integer.MAX_VALUE) {
             buildComplete(optimum, headermap);
         } else {
             buildIncomplete(optimum, headermap);
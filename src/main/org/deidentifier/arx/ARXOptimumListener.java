@@ -0,0 +1,41 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * This class implements a listener which is notified whenever the search algorithm has found
+ * a privacy-preserving transformation with a lower information loss than all transformations
+ * found before. The listener may stop the search early, in which case the best transformation
+ * found so far will be returned as the result.
+ *
+ * @author Fabian Prasser
+ */
+public interface ARXOptimumListener {
+
+    /**
+     * Reports a new optimum. Called by the thread executing the anonymization process.
+     *
+     * @param transformation The generalization levels of the quasi-identifiers
+     * @param informationLoss The information loss of the transformation
+     * @return Whether the search should be continued
+     */
+    public boolean optimumFound(int[] transformation, InformationLoss<?> informationLoss);
+
+}
@@ -26,6 +26,7 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.TransformedData;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.data.Data;
@@ -76,6 +77,9 @@ public class ARXResult {
     /** The registry. */
     private final SolutionSpace    solutionSpace;
 
+    /** The number of checks performed during the search, per type of transition */
+    private final long[]           transitions;
+
     /**
      * Internal constructor for deserialization.
      *
@@ -154,6 +158,7 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = time;
         this.solutionSpace = solutionSpace;
+        this.transitions = new long[TransitionType.values().length];
     }
     
     /**
@@ -167,6 +172,7 @@ public class ARXResult {
      * @param lattice
      * @param duration
      * @param solutionSpace
+     * @param transitions
      */
     protected ARXResult(DataRegistry registry,
                         DataManager manager,
@@ -175,7 +181,8 @@ public class ARXResult {
                         ARXConfiguration config,
                         ARXLattice lattice,
                         long duration,
-                        SolutionSpace solutionSpace) {
+                        SolutionSpace solutionSpace,
+                        long[] transitions) {
 
         this.registry = registry;
         this.manager = manager;
@@ -186,6 +193,7 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = duration;
         this.solutionSpace = solutionSpace;
+        this.transitions = transitions;
     }
 
 
@@ -372,6 +380,36 @@ public class ARXResult {
         return getOutput(optimalNode, fork);
     }
 
+    /**
+     * Returns the fraction of transformations checked during the search, which have been computed by
+     * rolling up the transformation checked before. Returns 0, if the result has been loaded from a file.
+     *
+     * @return
+     */
+    public double getFractionOfChecksWithRollup() {
+        return getFractionOfChecks(TransitionType.ROLLUP);
+    }
+
+    /**
+     * Returns the fraction of transformations checked during the search, which have been computed from
+     * a snapshot. Returns 0, if the result has been loaded from a file.
+     *
+     * @return
+     */
+    public double getFractionOfChecksWithSnapshot() {
+        return getFractionOfChecks(TransitionType.SNAPSHOT);
+    }
+
+    /**
+     * Returns the fraction of transformations checked during the search, which have been computed by
+     * transforming the whole dataset. Returns 0, if the result has been loaded from a file.
+     *
+     * @return
+     */
+    public double getFractionOfChecksWithoutOptimization() {
+        return getFractionOfChecks(TransitionType.UNOPTIMIZED);
+    }
+
     /**
      * Returns the execution time (wall clock).
      *
@@ -703,6 +741,19 @@ public class ARXResult {
         }
     }
 
+    /**
+     * Returns the fraction of transformations checked during the search with the given type of transition
+     * @param type
+     * @return
+     */
+    private double getFractionOfChecks(TransitionType type) {
+        long total = 0;
+        for (long count : transitions) {
+            total += count;
+        }
+        return total == 0 ? 0d : (double) transitions[type.ordinal()] / (double) total;
+    }
+
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -0,0 +1,212 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.RemoteNodeChecker;
+import org.deidentifier.arx.framework.check.RemoteObjectInputStream;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * A worker process, which checks transformations on behalf of an anonymization process running
+ * in another JVM, e.g. on another machine. The worker listens on a port and serves each connection
+ * in a separate thread. For each connection, it receives a replica of the encoded data and of the
+ * configuration and creates a node checker, which is used until the connection is closed. Workers
+ * are shared-nothing: they neither communicate with each other nor keep any state between connections.
+ * Usage: <code>java -cp ... org.deidentifier.arx.ARXWorker [port]</code>. If no port is specified,
+ * an arbitrary free port is used. The port is printed to standard out.
+ *
+ * @see ARXAnonymizer#setWorkers(java.util.List)
+ * @author Fabian Prasser
+ */
+public class ARXWorker {
+
+    /** The environment variable from which the shared secret is read by {@link #main(String[])} */
+    public static final String ENVIRONMENT_SECRET = "ARX_WORKER_SECRET";
+
+    /** The secret shared with the anonymization processes */
+    private final String       secret;
+
+    /** The server socket */
+    private final ServerSocket server;
+
+    /**
+     * Creates a new worker, which listens on the given port of the loopback interface.
+     *
+     * @param port The port, 0 for an arbitrary free port
+     * @param secret The secret shared with the anonymization processes
+     * @throws IOException
+     */
+    public ARXWorker(int port, String secret) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, secret);
+    }
+
+    /**
+     * Creates a new worker, which listens on the given port of the given address.
+     *
+     * @param address The address to bind to. Use with care, see the warning in the class documentation.
+     * @param port The port, 0 for an arbitrary free port
+     * @param secret The secret shared with the anonymization processes
+     * @throws IOException
+     */
+    public ARXWorker(InetAddress address, int port, String secret) throws IOException {
+        if (address == null) { throw new IllegalArgumentException("Address must not be null"); }
+        if (secret == null || secret.isEmpty()) { throw new IllegalArgumentException("Secret must not be empty"); }
+        this.secret = secret;
+        this.server = new ServerSocket(port, 0, address);
+    }
+
+    /**
+     * Returns the address on which this worker listens.
+     *
+     * @return
+     */
+    public InetAddress getAddress() {
+        return server.getInetAddress();
+    }
+
+    /**
+     * Returns the port on which this worker listens.
+     *
+     * @return
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Accepts and serves connections until the worker is stopped.
+     */
+    public void run() {
+        while (!server.isClosed()) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                continue;
+            }
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    serve(socket);
+                }
+            }, "ARX Worker " + socket.getRemoteSocketAddress());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker. Connections which are being served are not affected.
+     */
+    public void stop() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Serves the given connection.
+     *
+     * @param socket
+     */
+    private void serve(Socket socket) {
+
+        NodeChecker checker = null;
+        try {
+            socket.setTcpNoDelay(true);
+            RemoteNodeChecker.authenticate(socket, secret, true);
+            ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.flush();
+            ObjectInputStream input = new RemoteObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            // Create the checker from the replica sent by the coordinator
+            SolutionSpace solutionSpace;
+            try {
+                DataManager manager = (DataManager) input.readObject();
+                ARXConfiguration config = (ARXConfiguration) input.readObject();
+                int historyMaxSize = input.readInt();
+                double snapshotSizeDataset = input.readDouble();
+                double snapshotSizeSnapshot = input.readDouble();
+                config.initialize(manager);
+                solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+                checker = new NodeChecker(manager,
+                                          config.getMetric(),
+                                          config.getInternalConfiguration(),
+                                          historyMaxSize,
+                                          snapshotSizeDataset,
+                                          snapshotSizeSnapshot,
+                                          solutionSpace);
+            } catch (ClassNotFoundException e) {
+                RemoteNodeChecker.fail(output, e);
+                return;
+            } catch (RuntimeException e) {
+                RemoteNodeChecker.fail(output, e);
+                return;
+            }
+            RemoteNodeChecker.succeed(output);
+
+            // Serve
+            RemoteNodeChecker.serve(checker, solutionSpace, input, output);
+
+        } catch (IOException e) {
+            // Connection lost or authentication failed, release resources
+        } finally {
+            if (checker != null) {
+                checker.getHistory().reset();
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * Starts a worker. The shared secret is read from the environment variable {@link #ENVIRONMENT_SECRET}.
+     *
+     * @param args The port and the bind address, optional
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        String secret = System.getenv(ENVIRONMENT_SECRET);
+        if (secret == null || secret.isEmpty()) {
+            System.err.println("The environment variable " + ENVIRONMENT_SECRET + " must specify a secret");
+            System.exit(1);
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        ARXWorker worker = new ARXWorker(address, port, secret);
+        System.out.println(worker.getPort());
+        System.out.flush();
+        worker.run();
+    }
+}
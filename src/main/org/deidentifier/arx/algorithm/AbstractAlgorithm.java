@@ -17,9 +17,13 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.util.List;
+
 import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXOptimumListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -43,9 +47,21 @@ public abstract class AbstractAlgorithm {
     /** The listener */
     private ARXListener      listener               = null;
 
+    /** The listener for new optima */
+    private ARXOptimumListener optimumListener      = null;
+
+    /** Whether the search has been stopped by the listener */
+    private boolean          stopped                = false;
+
+    /** Transformations which are checked first for obtaining an initial optimum, may be null. */
+    private List<Transformation> warmStart          = null;
+
     /** A node checker. */
     protected NodeChecker      checker                = null;
 
+    /** A pool of node checkers for parallel execution, may be null. */
+    protected NodeCheckerPool  checkerPool            = null;
+
     /** The lattice. */
     protected SolutionSpace    solutionSpace          = null;
 
@@ -70,6 +86,32 @@ public abstract class AbstractAlgorithm {
         return globalOptimum;
     }
 
+    /**
+     * Returns the transformations provided for warm-starting the search, if any.
+     * 
+     * @return
+     */
+    protected List<Transformation> getWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Returns whether the search has been stopped early by the listener for new optima.
+     * 
+     * @return
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Sets a pool of checkers which may be used for checking transformations in parallel
+     * @param checkerPool
+     */
+    public void setCheckerPool(NodeCheckerPool checkerPool) {
+        this.checkerPool = checkerPool;
+    }
+
     /**
      * Sets a listener
      * @param listener
@@ -77,7 +119,25 @@ public abstract class AbstractAlgorithm {
     public void setListener(ARXListener listener) {
         this.listener = listener;
     }
+
+    /**
+     * Sets a listener for new optima
+     * @param listener
+     */
+    public void setOptimumListener(ARXOptimumListener listener) {
+        this.optimumListener = listener;
+    }
     
+    /**
+     * Sets transformations which may be checked before the search, in the given order, for
+     * obtaining an initial optimum. Algorithms which do not benefit from an initial optimum
+     * ignore them.
+     * @param transformations
+     */
+    public void setWarmStart(List<Transformation> transformations) {
+        this.warmStart = transformations;
+    }
+
     /**
      * Implement this method in order to provide a new algorithm.
      */
@@ -127,6 +187,10 @@ public abstract class AbstractAlgorithm {
             ((transformation.getInformationLoss().compareTo(optimalInformationLoss) == 0) && (transformation.getLevel() < globalOptimum.getLevel())))) {
             globalOptimum = transformation;
             optimalInformationLoss = transformation.getInformationLoss();
+            if (optimumListener != null &&
+                !optimumListener.optimumFound(transformation.getGeneralization().clone(), optimalInformationLoss.clone())) {
+                stopped = true;
+            }
         }
     }
 
@@ -18,10 +18,10 @@
 package org.deidentifier.arx.algorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
 import org.deidentifier.arx.framework.check.NodeChecker;
@@ -32,18 +32,22 @@ import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.InformationLoss;
 import org.deidentifier.arx.metric.InformationLossWithBound;
 
-import cern.colt.GenericSorting;
-import cern.colt.Swapper;
-import cern.colt.function.IntComparator;
 import cern.colt.list.LongArrayList;
 
-import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+import com.carrotsearch.hppc.LongOpenHashSet;
 
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.PredictiveProperty;
+import de.linearbits.jhpl.PredictiveProperty.Direction;
 
 /**
- * This class implements the FLASH algorithm.
+ * This class implements the FLASH algorithm. Transformations are addressed by their long
+ * identifiers and all per-transformation caches are sparse, which means that the size of
+ * the solution space is not limited to Integer.MAX_VALUE. If the anonymity property of the
+ * binary phase is predictable, the outer loop only enumerates successors of transformations
+ * on the previous level which do not have this property, instead of all transformations on
+ * each level.
  *
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -53,18 +57,21 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     /** Configuration for the algorithm's phases. */
     protected final FLASHConfiguration config;
 
-    /** Are the pointers for a node with id 'index' already sorted?. */
-    private final int[][]              sortedSuccessors;
+    /** Sorted pointers to the successors of the node with id 'index', if already sorted. */
+    private final LongObjectOpenHashMap<long[]> sortedSuccessors;
 
     /** The strategy. */
     private final FLASHStrategy        strategy;
 
     /** List of nodes that may be used for pruning transformations with insufficient utility. */
-    private final List<Integer>        potentiallyInsufficientUtility;
+    private final List<Long>           potentiallyInsufficientUtility;
 
     /** The number of checked transformations */
     private int                        checked = 0;
 
+    /** Results of transformations that have been checked in parallel, ahead of time */
+    private final LongObjectOpenHashMap<NodeChecker.Result> prechecked = new LongObjectOpenHashMap<NodeChecker.Result>();
+
     /**
      * Creates a new instance.
      *
@@ -79,16 +86,13 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                               FLASHConfiguration config) {
 
         super(solutionSpace, checker);
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException();
-        }
         this.checked = 0;
         this.solutionSpace.setAnonymityPropertyPredictable(config.isAnonymityPropertyPredicable());
         this.strategy = strategy;
-        this.sortedSuccessors = new int[(int)solutionSpace.getSize()][];
+        this.sortedSuccessors = new LongObjectOpenHashMap<long[]>();
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
-                                              new LinkedList<Integer>() : null;
+                                              new LinkedList<Long>() : null;
     }
 
     @Override
@@ -104,9 +108,12 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Set some triggers
         checker.getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
+        if (checkerPool != null) {
+            checkerPool.setHistoryStorageStrategy(config.getSnapshotStorageStrategy());
+        }
 
         // Initialize
-        PriorityQueue<Integer> queue = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
+        LongPriorityQueue queue = strategy.createQueue(solutionSpace.getTop().getLevel() + 1);
         Transformation bottom = solutionSpace.getBottom();
         Transformation top = solutionSpace.getTop();
 
@@ -115,9 +122,30 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         bottom.setProperty(solutionSpace.getPropertyForceSnapshot());
         bottom.setData(result);
 
+        // Transformations with this property and their successors are skipped by the outer loop
+        PredictiveProperty frontierProperty = null;
+        if (config.isBinaryPhaseRequired()) {
+            frontierProperty = getAnonymityProperty(config.getBinaryPhaseConfiguration());
+            if (frontierProperty.getDirection() != Direction.UP) {
+                frontierProperty = null;
+            }
+        }
+        long[] frontier = frontierProperty != null ? new long[] { bottom.getIdentifier() } : null;
+
         // For each node in the lattice
-        for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
-            for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
+        outer: for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
+            
+            // Enumerate successors of the previous level, if possible
+            if (frontier != null && level != bottom.getLevel()) {
+                frontier = getSuccessors(frontier, frontierProperty);
+            }
+            
+            for (long id : getSortedUnprocessedNodes(level, frontier, outerLoopConfiguration.getTriggerSkip())) {
+
+                // Stop early, if requested
+                if (isStopped()) {
+                    break outer;
+                }
 
                 // Run the correct phase
                 Transformation transformation = solutionSpace.getTransformation(id);
@@ -140,6 +168,12 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         if (potentiallyInsufficientUtility != null) {
         	potentiallyInsufficientUtility.clear();
         }
+        
+        // Clear results that have not been used
+        prechecked.clear();
+        
+        // Clear cached successors
+        sortedSuccessors.clear();
     }
 
     /**
@@ -148,16 +182,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param transformation
      * @param queue
      */
-    private void binarySearch(Transformation transformation, PriorityQueue<Integer> queue) {
+    private void binarySearch(Transformation transformation, LongPriorityQueue queue) {
 
         // Obtain node action
         DependentAction triggerSkip = config.getBinaryPhaseConfiguration().getTriggerSkip();
 
         // Add to queue
-        queue.add((int)transformation.getIdentifier());
+        queue.add(transformation.getIdentifier());
 
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isStopped()) {
 
             // Remove head and process
             transformation = solutionSpace.getTransformation(queue.poll());
@@ -194,7 +228,8 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            NodeChecker.Result result = prechecked.remove(transformation.getIdentifier());
+            transformation.setChecked(result != null ? result : checker.check(transformation));
             progress((double)++checked / (double)solutionSpace.getSize());
         }
 
@@ -216,11 +251,10 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param queue
      * @return
      */
-    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, PriorityQueue<Integer> queue) {
+    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, LongPriorityQueue queue) {
 
         // Obtain anonymity property
-        PredictiveProperty anonymityProperty = config.getBinaryPhaseConfiguration().getAnonymityProperty() == PhaseAnonymityProperty.ANONYMITY ?
-                                               solutionSpace.getPropertyAnonymous() : solutionSpace.getPropertyKAnonymous();
+        PredictiveProperty anonymityProperty = getAnonymityProperty(config.getBinaryPhaseConfiguration());
 
         // Init
         int low = 0;
@@ -228,7 +262,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Transformation lastAnonymousTransformation = null;
 
         // While not done
-        while (low <= high) {
+        while (low <= high && !isStopped()) {
 
             // Init
             final int mid = (low + high) / 2;
@@ -237,12 +271,17 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Check nodes that may be visited by the binary search in parallel
+                if (checkerPool != null && !prechecked.containsKey(transformation.getIdentifier())) {
+                    precheck(getBinarySearchOrder(path, low, high), config.getBinaryPhaseConfiguration(), triggerSkip);
+                }
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
                 // Add nodes to queue
                 if (!transformation.hasProperty(anonymityProperty)) {
-                    for (final int up : getSortedSuccessors(transformation)) {
+                    for (final long up : getSortedSuccessors(transformation)) {
                         if (!skip(triggerSkip, solutionSpace.getTransformation(up))) {
                             queue.add(up);
                         }
@@ -264,6 +303,32 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return lastAnonymousTransformation;
     }
 
+    /**
+     * Returns the transformations on the given part of a path in the order in which
+     * they may be visited by a binary search, i.e. in breadth-first order of the
+     * implicit search tree.
+     *
+     * @param path
+     * @param low
+     * @param high
+     * @return
+     */
+    private List<Transformation> getBinarySearchOrder(List<Transformation> path, int low, int high) {
+        List<Transformation> result = new ArrayList<Transformation>();
+        LinkedList<int[]> ranges = new LinkedList<int[]>();
+        ranges.add(new int[] { low, high });
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.removeFirst();
+            if (range[0] <= range[1]) {
+                int mid = (range[0] + range[1]) / 2;
+                result.add(path.get(mid));
+                ranges.add(new int[] { range[0], mid - 1 });
+                ranges.add(new int[] { mid + 1, range[1] });
+            }
+        }
+        return result;
+    }
+
     /**
      * Greedily finds a path to the top node.
      *
@@ -277,7 +342,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         boolean found = true;
         while (found) {
             found = false;
-            for (final int id : getSortedSuccessors(current)) {
+            for (final long id : getSortedSuccessors(current)) {
                 Transformation next = solutionSpace.getTransformation(id);
                 if (!skip(triggerSkip, next)) {
                     current = next;
@@ -291,28 +356,76 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     }
     
     /**
-     * Returns all transformations that do not have the given property and sorts the resulting array
+     * Returns the anonymity property of the given phase
+     *
+     * @param configuration
+     * @return
+     */
+    private PredictiveProperty getAnonymityProperty(FLASHPhaseConfiguration configuration) {
+        return configuration.getAnonymityProperty() == PhaseAnonymityProperty.ANONYMITY ?
+               solutionSpace.getPropertyAnonymous() : solutionSpace.getPropertyKAnonymous();
+    }
+    
+    /**
+     * Returns all transformations that are not skipped and sorts the resulting array
      * according to the strategy.
      *
      * @param level The level which is to be sorted
+     * @param candidates The candidates on this level in ascending order of their identifiers, 
+     *                   <code>null</code> if all transformations on the level are candidates
      * @param triggerSkip The trigger to be used for limiting the number of nodes to be sorted
      * @return A sorted array of nodes remaining on this level
      */
-    private int[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
+    private long[] getSortedUnprocessedNodes(int level, long[] candidates, DependentAction triggerSkip) {
 
         // Create
-        IntArrayList list = new IntArrayList();
-        for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
-            long id = iter.next();
-            if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
-                list.add((int)id);
-            }            
+        LongArrayList list = new LongArrayList();
+        if (candidates != null) {
+            for (long id : candidates) {
+                if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
+                    list.add(id);
+                }
+            }
+        } else {
+            for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
+                long id = iter.next();
+                if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
+                    list.add(id);
+                }            
+            }
         }
 
         // Copy & sort
-        int[] array = new int[list.size()];
-        System.arraycopy(list.buffer, 0, array, 0, list.elementsCount);
-        sort(array);
+        list.trimToSize();
+        long[] array = list.elements();
+        strategy.sort(array);
+        return array;
+    }
+
+    /**
+     * Returns the successors of all given transformations which do not have the given property,
+     * in ascending order of their identifiers. The property must be predicted upwards and the
+     * outer loop must skip all transformations which have it. The successors of transformations
+     * with the property have the property as well. By induction, transformations on the next
+     * level which are not returned thus have the property, as all of their predecessors have it.
+     *
+     * @param transformations
+     * @param property
+     * @return
+     */
+    private long[] getSuccessors(long[] transformations, PredictiveProperty property) {
+        LongOpenHashSet result = new LongOpenHashSet();
+        for (long id : transformations) {
+            Transformation transformation = solutionSpace.getTransformation(id);
+            if (!transformation.hasProperty(property)) {
+                LongArrayList successors = transformation.getSuccessors();
+                for (int i = 0; i < successors.size(); i++) {
+                    result.add(successors.getQuick(i));
+                }
+            }
+        }
+        long[] array = result.toArray();
+        Arrays.sort(array);
         return array;
     }
 
@@ -323,17 +436,32 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      */
     private void linearSearch(Transformation transformation) {
 
+        // Stop early, if requested
+        if (isStopped()) {
+            return;
+        }
+
         // Obtain node action
         DependentAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
 
         // Skip this node
         if (!skip(triggerSkip, transformation)) {
 
+            // Check the node and its successors in parallel
+            if (checkerPool != null && !prechecked.containsKey(transformation.getIdentifier())) {
+                List<Transformation> candidates = new ArrayList<Transformation>();
+                candidates.add(transformation);
+                for (final long child : getSortedSuccessors(transformation)) {
+                    candidates.add(solutionSpace.getTransformation(child));
+                }
+                precheck(candidates, config.getLinearPhaseConfiguration(), triggerSkip);
+            }
+
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
             // DFS
-            for (final int child : getSortedSuccessors(transformation)) {
+            for (final long child : getSortedSuccessors(transformation)) {
                 Transformation childTransformation = solutionSpace.getTransformation(child);
                 if (!skip(triggerSkip, childTransformation)) {
                     linearSearch(childTransformation);
@@ -345,6 +473,48 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
     }
 
+    /**
+     * Checks up to one transformation per thread from the given list of candidates in parallel
+     * and stores the results for later use. Only transformations which are not skipped and would
+     * actually be checked in the given phase are considered. The first candidate should be the
+     * transformation which is about to be checked. Checking the other transformations is
+     * speculative, as they may be tagged by predictive tagging in the meantime.
+     *
+     * @param candidates
+     * @param configuration
+     * @param triggerSkip
+     */
+    private void precheck(List<Transformation> candidates,
+                          FLASHPhaseConfiguration configuration,
+                          DependentAction triggerSkip) {
+
+        // Select
+        List<Transformation> batch = new ArrayList<Transformation>();
+        for (Transformation candidate : candidates) {
+            if (batch.size() == checkerPool.getNumThreads()) {
+                break;
+            }
+            if (!prechecked.containsKey(candidate.getIdentifier()) &&
+                !skip(triggerSkip, candidate) &&
+                !configuration.getTriggerEvaluate().appliesTo(candidate) &&
+                configuration.getTriggerCheck().appliesTo(candidate) &&
+                !(candidate.getData() instanceof NodeChecker.Result)) {
+                batch.add(candidate);
+            }
+        }
+
+        // Nothing to parallelize
+        if (batch.size() <= 1) {
+            return;
+        }
+
+        // Check and store
+        NodeChecker.Result[] results = checkerPool.check(batch, false);
+        for (int i = 0; i < results.length; i++) {
+            prechecked.put(batch.get(i).getIdentifier(), results[i]);
+        }
+    }
+
     /**
      * We may be able to prune some transformations based on weak lower bounds on
      * the monotonic share of a node's information loss.
@@ -373,7 +543,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If we haven't yet found an optimum, we simply add the node to the list of pruning candidates
         if (optimalTransformation == null) {
-            potentiallyInsufficientUtility.add((int)node.getIdentifier());
+            potentiallyInsufficientUtility.add(node.getIdentifier());
             return;
         }
 
@@ -389,16 +559,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
                 // Else, we store it as a future pruning candidate
             } else {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier());
             }
 
             // If the current node is our new optimum, we check all candidates
         } else {
 
             // For each candidate
-            Iterator<Integer> iterator = potentiallyInsufficientUtility.iterator();
+            Iterator<Long> iterator = potentiallyInsufficientUtility.iterator();
             while (iterator.hasNext()) {
-                Integer current = iterator.next();
+                Long current = iterator.next();
 
                 // Remove the candidate, if it was already pruned in the meantime
                 Transformation currentTransformation = solutionSpace.getTransformation(current);
@@ -415,7 +585,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
             // The current optimum is a future pruning candidate
             if (!node.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier());
             }
         }
     }
@@ -470,45 +640,22 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return false;
     }
 
-    /**
-     * Sorts a given array of transformation identifiers.
-     * 
-     * @param array
-     */
-    private void sort(final int[] array) {
-        GenericSorting.mergeSort(0, array.length, new IntComparator(){
-            @Override
-            public int compare(int arg0, int arg1) {
-                return strategy.compare(array[arg0], array[arg1]);
-            }
-        }, new Swapper(){
-            @Override
-            public void swap(int arg0, int arg1) {
-                int temp = array[arg0];
-                array[arg0] = array[arg1];
-                array[arg1] = temp;
-            }
-            
-        });
-    }
-
     /**
      * Sorts pointers to successor nodes according to the strategy.
      *
      * @param transformation
      */
-    private int[] getSortedSuccessors(final Transformation transformation) {
+    private long[] getSortedSuccessors(final Transformation transformation) {
         
-        int identifier = (int)transformation.getIdentifier();
-        if (sortedSuccessors[identifier] == null) {
+        long identifier = transformation.getIdentifier();
+        long[] result = sortedSuccessors.get(identifier);
+        if (result == null) {
             LongArrayList list = transformation.getSuccessors();
-            int[] result = new int[list.size()];
-            for (int i=0; i<list.size(); i++) {
-                result[i] = (int)list.getQuick(i);
-            }
-            sort(result);
-            sortedSuccessors[identifier] = result;
+            list.trimToSize();
+            result = list.elements();
+            strategy.sort(result);
+            sortedSuccessors.put(identifier, result);
         }
-        return sortedSuccessors[identifier];
+        return result;
     }
 }
@@ -17,20 +17,85 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.util.Arrays;
 import java.util.Comparator;
 
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import cern.colt.GenericSorting;
+import cern.colt.Swapper;
+import cern.colt.function.IntComparator;
+
 /**
  * This class implements a total order on all transformations in the search space. It is
- * used by the Flash algorithm to achieve stable execution times.
+ * used by the Flash algorithm to achieve stable execution times. Transformations are
+ * identified by their long identifiers. Criteria are not cached across calls: they are
+ * computed once per element of an array which is sorted or of a queue, and discarded
+ * with it, which means that memory is not proportional to the size of the solution space.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class FLASHStrategy implements Comparator<Integer> {
+public class FLASHStrategy implements Comparator<Long> {
+
+    /**
+     * A priority queue which orders transformations according to the strategy. The criteria
+     * of each transformation are copied into a primitive array when it is added.
+     *
+     * @author Fabian Prasser
+     */
+    private final class FLASHPriorityQueue extends LongPriorityQueue {
+
+        /** The criteria, three values per element */
+        private double[] criteria;
+
+        /**
+         * Creates a new instance
+         * @param capacity
+         */
+        private FLASHPriorityQueue(int capacity) {
+            super(capacity);
+            this.criteria = new double[capacity * 3];
+        }
+
+        @Override
+        protected int compare(int index1, int index2) {
+            return FLASHStrategy.compare(criteria, index1 * 3, criteria, index2 * 3);
+        }
+
+        @Override
+        protected void copy(int from, int to) {
+            System.arraycopy(criteria, from * 3, criteria, to * 3, 3);
+        }
+
+        @Override
+        protected void release(int index) {
+            // Nothing to do
+        }
+
+        @Override
+        protected void resize(int capacity) {
+            criteria = Arrays.copyOf(criteria, capacity * 3);
+        }
+
+        @Override
+        protected void store(int index, long id) {
+            System.arraycopy(getCriteria(id), 0, criteria, index * 3, 3);
+        }
+
+        @Override
+        protected void swap(int index1, int index2) {
+            int offset1 = index1 * 3;
+            int offset2 = index2 * 3;
+            for (int i = 0; i < 3; i++) {
+                double temp = criteria[offset1 + i];
+                criteria[offset1 + i] = criteria[offset2 + i];
+                criteria[offset2 + i] = temp;
+            }
+        }
+    }
 
     /** The distinct values. */
     private final int[][]       distinct;
@@ -41,9 +106,6 @@ public class FLASHStrategy implements Comparator<Integer> {
     /** The maximal level for each quasi-identifier. */
     private final int[]         maxLevels;
 
-    /** The cached values for a node with id 'index'. */
-    private final double[][]    cache;
-
     /** The solution space */
     private final SolutionSpace solutionSpace;
 
@@ -56,11 +118,6 @@ public class FLASHStrategy implements Comparator<Integer> {
     public FLASHStrategy(final SolutionSpace solutionSpace,
                          final GeneralizationHierarchy[] hierarchies) {
 
-        // Check
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException("Solution space is too large for executing the FLASH algorithm");
-        }
-        
         // Store
         this.solutionSpace = solutionSpace;
         
@@ -78,9 +135,6 @@ public class FLASHStrategy implements Comparator<Integer> {
         for (int i = 0; i < hierarchies.length; i++) {
             this.distinct[i] = hierarchies[i].getDistinctValues();
         }
-        
-        // Prepare cache
-        this.cache = new double[(int)solutionSpace.getSize()][];
     }
 
     /**
@@ -93,34 +147,65 @@ public class FLASHStrategy implements Comparator<Integer> {
      * @return the int
      */
     @Override
-    public int compare(final Integer n1, final Integer n2) {
+    public int compare(final Long n1, final Long n2) {
+        return compare(n1.longValue(), n2.longValue());
+    }
 
-        // Obtain vals
-        if (cache[n1] == null) {
-            cache[n1] = getCriteria(n1);
-        }
-        if (cache[n2] == null) {
-            cache[n2] = getCriteria(n2);
-        }
-        final double[] m1 = cache[n1];
-        final double[] m2 = cache[n2];
-
-        // Compare vals
-        if (m1[0] < m2[0]) {
-            return -1;
-        } else if (m1[0] > m2[0]) {
-            return +1;
-        } else if (m1[1] < m2[1]) {
-            return -1;
-        } else if (m1[1] > m2[1]) {
-            return +1;
-        } else if (m1[2] < m2[2]) {
-            return -1;
-        } else if (m1[2] > m2[2]) {
-            return +1;
-        } else {
-            return 0;
+    /**
+     * Compares transformations.
+     * 
+     * @param n1
+     *            the n1
+     * @param n2
+     *            the n2
+     * @return the int
+     */
+    public int compare(final long n1, final long n2) {
+        return compare(getCriteria(n1), 0, getCriteria(n2), 0);
+    }
+
+    /**
+     * Creates a priority queue which orders transformations according to this strategy.
+     * 
+     * @param capacity the initial capacity
+     * @return the queue
+     */
+    public LongPriorityQueue createQueue(int capacity) {
+        return new FLASHPriorityQueue(capacity);
+    }
+
+    /**
+     * Sorts the given transformations according to this strategy. The sort is stable.
+     * 
+     * @param array the identifiers of the transformations
+     */
+    public void sort(final long[] array) {
+        
+        // Compute criteria once per transformation
+        final double[] criteria = new double[array.length * 3];
+        for (int i = 0; i < array.length; i++) {
+            System.arraycopy(getCriteria(array[i]), 0, criteria, i * 3, 3);
         }
+        
+        // Sort
+        GenericSorting.mergeSort(0, array.length, new IntComparator(){
+            @Override
+            public int compare(int arg0, int arg1) {
+                return FLASHStrategy.compare(criteria, arg0 * 3, criteria, arg1 * 3);
+            }
+        }, new Swapper(){
+            @Override
+            public void swap(int arg0, int arg1) {
+                long temp = array[arg0];
+                array[arg0] = array[arg1];
+                array[arg1] = temp;
+                for (int i = 0; i < 3; i++) {
+                    double value = criteria[arg0 * 3 + i];
+                    criteria[arg0 * 3 + i] = criteria[arg1 * 3 + i];
+                    criteria[arg1 * 3 + i] = value;
+                }
+            }
+        });
     }
 
     /**
@@ -129,7 +214,7 @@ public class FLASHStrategy implements Comparator<Integer> {
      * @param id the id
      * @return the value
      */
-    private final double[] getCriteria(final int id) {
+    private final double[] getCriteria(final long id) {
         
         // Prepare
         double level = 0;
@@ -151,4 +236,26 @@ public class FLASHStrategy implements Comparator<Integer> {
         // Return
         return new double[] { level, prec, ddistinct };
     }
+
+    /**
+     * Compares the criteria at the given offsets.
+     * 
+     * @param criteria1
+     * @param offset1
+     * @param criteria2
+     * @param offset2
+     * @return
+     */
+    private static int compare(final double[] criteria1, final int offset1, final double[] criteria2, final int offset2) {
+        for (int i = 0; i < 3; i++) {
+            double value1 = criteria1[offset1 + i];
+            double value2 = criteria2[offset2 + i];
+            if (value1 < value2) {
+                return -1;
+            } else if (value1 > value2) {
+                return +1;
+            }
+        }
+        return 0;
+    }
 }
@@ -0,0 +1,306 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.CheckScheduler;
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+
+import de.linearbits.jhpl.PredictiveProperty;
+
+/**
+ * This class implements a genetic algorithm, i.e. a population-based evolutionary search over
+ * generalization vectors, which is executed until a time limit has been reached or until the
+ * optimum has not been improved for a given number of generations. Privacy-preserving
+ * transformations are fitter than all other transformations and are ranked by their information
+ * loss. Each generation keeps the fittest transformations and creates new ones by tournament
+ * selection, uniform crossover and mutation, as well as a few random transformations, which
+ * maintain diversity. The new transformations of a generation are checked in a batch, in parallel
+ * if a pool of checkers is available. As the algorithm never enumerates parts of the solution space,
+ * it is suited for data with a large number of quasi-identifiers.
+ *
+ * @author Fabian Prasser
+ */
+public class GeneticAlgorithm extends AbstractAlgorithm {
+
+    /** Fraction of the fittest transformations which are kept in the next generation */
+    private static final double      ELITE_FRACTION                      = 0.2d;
+    /** Fraction of random transformations which are added to each generation */
+    private static final double      IMMIGRATION_FRACTION                = 0.2d;
+    /** Number of attempts for creating a transformation which is not yet part of a generation */
+    private static final int         MAX_ATTEMPTS                        = 10;
+    /** Number of generations without a new optimum, after which the search is terminated */
+    private static final int         MAX_GENERATIONS_WITHOUT_IMPROVEMENT = 100;
+    /** Minimal size of the population */
+    private static final int         MIN_POPULATION_SIZE                 = 20;
+    /** Seed of the random generator, which makes the search reproducible */
+    private static final long        SEED                                = 0xDEADBEEF;
+
+    /** The number of transformations checked */
+    private long                     checked                             = 0;
+    /** The comparator which orders transformations by their fitness */
+    private final Comparator<Transformation> fitness;
+    /** The maximal generalization levels */
+    private final int[]              max;
+    /** The minimal generalization levels */
+    private final int[]              min;
+    /** The size of the population */
+    private final int                populationSize;
+    /** Property */
+    private final PredictiveProperty propertyAnonymous;
+    /** Property */
+    private final PredictiveProperty propertyChecked;
+    /** The random generator */
+    private final Random             random;
+    /** Time limit */
+    private final int                timeLimit;
+    /** The start time */
+    private long                     timeStart;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param timeLimit
+     */
+    private GeneticAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit) {
+        super(space, checker);
+        if (timeLimit <= 0) {
+            throw new IllegalArgumentException("Invalid time limit. Must be greater than zero.");
+        }
+        this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.propertyAnonymous = space.getPropertyAnonymous();
+        this.propertyChecked = space.getPropertyChecked();
+        this.min = space.getBottom().getGeneralization();
+        this.max = space.getTop().getGeneralization();
+        this.populationSize = Math.max(MIN_POPULATION_SIZE, 2 * min.length);
+        this.random = new Random(SEED);
+        this.timeLimit = timeLimit;
+        this.fitness = new Comparator<Transformation>() {
+            @Override
+            public int compare(Transformation t1, Transformation t2) {
+                boolean anonymous1 = t1.hasProperty(propertyAnonymous);
+                boolean anonymous2 = t2.hasProperty(propertyAnonymous);
+                if (anonymous1 != anonymous2) {
+                    return anonymous1 ? -1 : +1;
+                } else if (anonymous1) {
+                    int cmp = t1.getInformationLoss().compareTo(t2.getInformationLoss());
+                    return cmp != 0 ? cmp : t1.getLevel() - t2.getLevel();
+                } else {
+                    // Transformations which are closer to the privacy-preserving part of the space first
+                    return t2.getLevel() - t1.getLevel();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void traverse() {
+        timeStart = System.currentTimeMillis();
+        if (checkerPool != null) {
+            checkerPool.setHistoryStorageStrategy(StorageStrategy.ALL);
+        }
+
+        // Initial population, which contains the top, which is usually privacy-preserving,
+        // and the transformations provided for a warm start
+        List<Transformation> population = new ArrayList<Transformation>();
+        LongOpenHashSet members = new LongOpenHashSet();
+        add(population, members, solutionSpace.getTop());
+        if (getWarmStart() != null) {
+            for (Transformation transformation : getWarmStart()) {
+                if (population.size() == populationSize) {
+                    break;
+                }
+                add(population, members, transformation);
+            }
+        }
+        addRandom(population, members, populationSize);
+        evaluate(population);
+
+        // Evolve
+        int generationsWithoutImprovement = 0;
+        while (!isTerminated() && checked < solutionSpace.getSize() &&
+               generationsWithoutImprovement < MAX_GENERATIONS_WITHOUT_IMPROVEMENT) {
+
+            // Select the fittest transformations
+            Collections.sort(population, fitness);
+            List<Transformation> next = new ArrayList<Transformation>();
+            members.clear();
+            int elite = Math.max(1, (int) (populationSize * ELITE_FRACTION));
+            for (int i = 0; i < elite && i < population.size(); i++) {
+                add(next, members, population.get(i));
+            }
+
+            // Create offspring and immigrants
+            int offspring = populationSize - (int) (populationSize * IMMIGRATION_FRACTION);
+            for (int attempt = 0; next.size() < offspring && attempt < offspring * MAX_ATTEMPTS; attempt++) {
+                add(next, members, getOffspring(select(population), select(population)));
+            }
+            addRandom(next, members, populationSize);
+
+            // Check
+            Transformation optimum = getGlobalOptimum();
+            evaluate(next);
+            population = next;
+            generationsWithoutImprovement = optimum == getGlobalOptimum() ? generationsWithoutImprovement + 1 : 0;
+        }
+    }
+
+    /**
+     * Adds the given transformation to the given generation, if it is not already contained
+     * @param generation
+     * @param members
+     * @param transformation
+     */
+    private void add(List<Transformation> generation, LongOpenHashSet members, Transformation transformation) {
+        if (members.add(transformation.getIdentifier())) {
+            generation.add(transformation);
+        }
+    }
+
+    /**
+     * Adds random transformations to the given generation until it has the given size
+     * @param generation
+     * @param members
+     * @param size
+     */
+    private void addRandom(List<Transformation> generation, LongOpenHashSet members, int size) {
+        int attempts = (size - generation.size()) * MAX_ATTEMPTS;
+        for (int attempt = 0; generation.size() < size && attempt < attempts; attempt++) {
+            int[] generalization = new int[min.length];
+            for (int i = 0; i < generalization.length; i++) {
+                generalization[i] = min[i] + random.nextInt(max[i] - min[i] + 1);
+            }
+            add(generation, members, solutionSpace.getTransformation(generalization));
+        }
+    }
+
+    /**
+     * Checks all transformations of the given generation, which have not been checked before.
+     * The transformations are ordered, such that they can be rolled up from each other as often
+     * as possible. They are checked in batches of one transformation per thread, which the pool
+     * assigns to its checkers. Terminates early, if the time limit has been reached or the search
+     * has been stopped.
+     * @param generation
+     */
+    private void evaluate(List<Transformation> generation) {
+
+        // Collect
+        List<Transformation> candidates = new ArrayList<Transformation>();
+        for (Transformation transformation : generation) {
+            if (!transformation.hasProperty(propertyChecked)) {
+                candidates.add(transformation);
+            }
+        }
+        List<Transformation> unchecked = new ArrayList<Transformation>();
+        for (int index : CheckScheduler.schedule(candidates, new int[1][]).get(0)) {
+            unchecked.add(candidates.get(index));
+        }
+
+        // Check in batches of one transformation per thread
+        int width = checkerPool != null ? checkerPool.getNumThreads() : 1;
+        for (int offset = 0; offset < unchecked.size() && !isTerminated(); offset += width) {
+            List<Transformation> batch = unchecked.subList(offset, Math.min(offset + width, unchecked.size()));
+            NodeChecker.Result[] results;
+            if (checkerPool != null && batch.size() > 1) {
+                results = checkerPool.check(batch, true);
+            } else {
+                results = new NodeChecker.Result[] { checker.check(batch.get(0), true) };
+            }
+            for (int i = 0; i < results.length; i++) {
+                Transformation transformation = batch.get(i);
+                transformation.setChecked(results[i]);
+                trackOptimum(transformation);
+                checked++;
+            }
+        }
+        progress((double)(System.currentTimeMillis() - timeStart) / (double)timeLimit);
+    }
+
+    /**
+     * Creates a new transformation by uniform crossover of the given parents and
+     * subsequent mutation of each generalization level with a probability of 1/dimensions
+     * @param parent1
+     * @param parent2
+     * @return
+     */
+    private Transformation getOffspring(Transformation parent1, Transformation parent2) {
+        int[] generalization1 = parent1.getGeneralization();
+        int[] generalization2 = parent2.getGeneralization();
+        int[] generalization = new int[min.length];
+        for (int i = 0; i < generalization.length; i++) {
+            generalization[i] = random.nextBoolean() ? generalization1[i] : generalization2[i];
+            if (random.nextInt(generalization.length) == 0) {
+                int level = generalization[i] + (random.nextBoolean() ? 1 : -1);
+                generalization[i] = Math.max(min[i], Math.min(max[i], level));
+            }
+        }
+        return solutionSpace.getTransformation(generalization);
+    }
+
+    /**
+     * Returns the current execution time
+     * @return
+     */
+    private int getTime() {
+        return (int)(System.currentTimeMillis() - timeStart);
+    }
+
+    /**
+     * Returns whether the time limit has been reached or the search has been stopped
+     * @return
+     */
+    private boolean isTerminated() {
+        return getTime() > timeLimit || isStopped();
+    }
+
+    /**
+     * Selects a parent from the given population, which must be sorted by fitness,
+     * with a binary tournament
+     * @param population
+     * @return
+     */
+    private Transformation select(List<Transformation> population) {
+        int index = Math.min(random.nextInt(population.size()), random.nextInt(population.size()));
+        return population.get(index);
+    }
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           int timeLimit) {
+        return new GeneticAlgorithm(solutionSpace, checker, timeLimit);
+    }
+}
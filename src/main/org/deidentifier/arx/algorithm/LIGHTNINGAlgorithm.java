@@ -17,18 +17,28 @@
 
 package org.deidentifier.arx.algorithm;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
 
 import cern.colt.list.LongArrayList;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+
 import de.linearbits.jhpl.PredictiveProperty;
 
 /**
+ * This class implements the LIGHTNING algorithm, a best-first search with periodic
+ * depth-first dives, which is executed until a time limit has been reached. If a pool of
+ * checkers is available, several transformations from the frontier are expanded in each
+ * step and their successors are checked in parallel. The global optimum and the
+ * properties used for pruning are maintained by the calling thread and shared by all steps.
  * 
  * @author Fabian Prasser
  * @author Raffael Bild
@@ -37,10 +47,65 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
 
+    /**
+     * A priority queue which orders transformations by their utility. The utility of each
+     * transformation is looked up once, when it is added.
+     *
+     * @author Fabian Prasser
+     */
+    private final class UtilityPriorityQueue extends LongPriorityQueue {
+
+        /** The utility of each element */
+        private InformationLoss<?>[] utility;
+
+        /**
+         * Creates a new instance
+         * @param capacity
+         */
+        private UtilityPriorityQueue(int capacity) {
+            super(capacity);
+            this.utility = new InformationLoss<?>[capacity];
+        }
+
+        @Override
+        protected int compare(int index1, int index2) {
+            return utility[index1].compareTo(utility[index2]);
+        }
+
+        @Override
+        protected void copy(int from, int to) {
+            utility[to] = utility[from];
+        }
+
+        @Override
+        protected void release(int index) {
+            utility[index] = null;
+        }
+
+        @Override
+        protected void resize(int capacity) {
+            utility = Arrays.copyOf(utility, capacity);
+        }
+
+        @Override
+        protected void store(int index, long id) {
+            utility[index] = solutionSpace.getUtility(id);
+        }
+
+        @Override
+        protected void swap(int index1, int index2) {
+            InformationLoss<?> temp = utility[index1];
+            utility[index1] = utility[index2];
+            utility[index2] = temp;
+        }
+    }
+
     /** Property */
     private final PredictiveProperty propertyChecked;
     /** Property */
     private final PredictiveProperty propertyExpanded;
+    /** Property */
+    private final PredictiveProperty propertyInsufficientUtility;
     /** The number indicating how often a depth-first-search will be performed */
     private final int                stepping;
     /** Time limit */
@@ -61,6 +126,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         this.stepping = stepping > 0 ? stepping : 1;
         this.propertyChecked = space.getPropertyChecked();
         this.propertyExpanded = space.getPropertyExpanded();
+        this.propertyInsufficientUtility = space.getPropertyInsufficientUtility();
         this.solutionSpace.setAnonymityPropertyPredictable(false);
         this.timeLimit = timeLimit;
         if (timeLimit <= 0) { 
@@ -83,29 +149,45 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     @Override
     public void traverse() {
         timeStart = System.currentTimeMillis();
-        PriorityQueue<Long> queue = new PriorityQueue<Long>(stepping, new Comparator<Long>() {
-            @Override
-            public int compare(Long arg0, Long arg1) {
-                return solutionSpace.getUtility(arg0).compareTo(solutionSpace.getUtility(arg1));
-            }
-        });
+        if (checkerPool != null) {
+            checkerPool.setHistoryStorageStrategy(StorageStrategy.ALL);
+        }
+        LongPriorityQueue queue = new UtilityPriorityQueue(stepping);
         Transformation bottom = solutionSpace.getBottom();
         assureChecked(bottom);
+        warmStart();
         queue.add(bottom.getIdentifier());
-        Transformation next;
+        int width = checkerPool != null ? checkerPool.getNumThreads() : 1;
+        List<Transformation> frontier = new ArrayList<Transformation>(width);
         int step = 0;
-        Long nextId;
-        while ((nextId = queue.poll()) != null) {
-            next = solutionSpace.getTransformation(nextId);
-            if (!prune(next)) {
-                step++;
-                if (step % stepping == 0) {
-                    dfs(queue, next);
-                } else {
-                    expand(queue, next);
+        while (!queue.isEmpty()) {
+
+            // Select transformations to expand
+            frontier.clear();
+            while (frontier.size() < width && !queue.isEmpty()) {
+                Transformation next = solutionSpace.getTransformation(queue.poll());
+                if (!prune(next)) {
+                    frontier.add(next);
                 }
-                if (getTime() > timeLimit) {
-                    return;
+            }
+
+            // Check their successors in parallel
+            if (checkerPool != null) {
+                precheck(frontier);
+            }
+
+            // Expand
+            for (Transformation next : frontier) {
+                if (!prune(next)) {
+                    step++;
+                    if (step % stepping == 0) {
+                        dfs(queue, next);
+                    } else {
+                        expand(queue, next);
+                    }
+                    if (isTerminated()) {
+                        return;
+                    }
                 }
             }
         }
@@ -119,18 +201,49 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         return (int)(System.currentTimeMillis() - timeStart);
     }
 
+    /**
+     * Checks the transformations provided for a warm start, until one of them is privacy-preserving.
+     * It serves as an initial optimum, which enables pruning from the beginning of the search.
+     */
+    private void warmStart() {
+        if (getWarmStart() == null) {
+            return;
+        }
+        for (Transformation transformation : getWarmStart()) {
+            if (isTerminated()) {
+                return;
+            }
+            assureChecked(transformation);
+            if (transformation.hasProperty(solutionSpace.getPropertyAnonymous())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the time limit has been reached or the search has been stopped
+     * @return
+     */
+    private boolean isTerminated() {
+        return getTime() > timeLimit || isStopped();
+    }
+
     /**
     * Performs a depth first search (without backtracking) starting from the the given transformation
     * @param queue
     * @param transformation
     */
-    private void dfs(PriorityQueue<Long> queue, Transformation transformation) {
-        if (getTime() > timeLimit) {
+    private void dfs(LongPriorityQueue queue, Transformation transformation) {
+        if (isTerminated()) {
             return;
         }
+        if (checkerPool != null) {
+            List<Transformation> list = new ArrayList<Transformation>(1);
+            list.add(transformation);
+            precheck(list);
+        }
         Transformation next = expand(queue, transformation);
         if (next != null) {
-            queue.remove(next);
             dfs(queue, next);
         }
     }
@@ -140,21 +253,21 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     * @param transformation
     * @return
     */
-    private Transformation expand(PriorityQueue<Long> queue, Transformation transformation) {
+    private Transformation expand(LongPriorityQueue queue, Transformation transformation) {
         Transformation result = null;
 
         LongArrayList list = transformation.getSuccessors();
         for (int i = 0; i < list.size(); i++) {
             long id = list.getQuick(i);
             Transformation successor = solutionSpace.getTransformation(id);
-            if (!successor.hasProperty(propertyExpanded)) {
+            if (!successor.hasProperty(propertyExpanded) && !hasInsufficientUtility(successor)) {
                 assureChecked(successor);
                 queue.add(successor.getIdentifier());
                 if (result == null || successor.getInformationLoss().compareTo(result.getInformationLoss()) < 0) {
                     result = successor;
                 }
             }
-            if (getTime() > timeLimit) {
+            if (isTerminated()) {
                 return null;
             }
         }
@@ -162,6 +275,105 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         return result;
     }
     
+    /**
+     * Returns whether the given transformation, which may not have been checked yet, and all of its
+     * successors cannot be better than the current optimum. This is determined with a lower bound
+     * which is computed by the metric without accessing the data, e.g. from precomputed values for
+     * each attribute and generalization level. Such transformations do not need to be checked.
+     * The bound is stored with the transformation and pruned transformations are tagged, which
+     * predictively applies to their successors as well.
+     * @param transformation
+     * @return
+     */
+    private boolean hasInsufficientUtility(Transformation transformation) {
+        
+        // Already pruned
+        if (transformation.hasProperty(propertyInsufficientUtility)) {
+            return true;
+        }
+        
+        // We need a monotonic metric and an optimum
+        if (!isMetricMonotonic() || getGlobalOptimum() == null) {
+            return false;
+        }
+        
+        // Obtain bound
+        InformationLoss<?> lowerBound = transformation.getLowerBound();
+        if (lowerBound == null) {
+            lowerBound = checker.getMetric().getLowerBound(transformation);
+            if (lowerBound == null) {
+                return false;
+            }
+            transformation.setLowerBound(lowerBound);
+        }
+        
+        // Prune
+        if (isInsufficient(lowerBound)) {
+            transformation.setProperty(propertyInsufficientUtility);
+            transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a transformation with the given lower bound and its successors cannot be
+     * better than the current optimum, which must exist
+     * @param lowerBound
+     * @return
+     */
+    private boolean isInsufficient(InformationLoss<?> lowerBound) {
+        return lowerBound.compareTo(getGlobalOptimum().getInformationLoss()) >= 0;
+    }
+
+    /**
+     * Returns whether the information loss is monotonic
+     * @return
+     */
+    private boolean isMetricMonotonic() {
+        return checker.getMetric().isMonotonic() || checker.getConfiguration().getAbsoluteMaxOutliers() == 0;
+    }
+
+    /**
+     * Checks all successors of the given transformations, which have neither been checked nor
+     * expanded, in parallel
+     * @param transformations
+     */
+    private void precheck(List<Transformation> transformations) {
+
+        // Collect
+        List<Transformation> batch = new ArrayList<Transformation>();
+        LongOpenHashSet selected = new LongOpenHashSet();
+        for (Transformation transformation : transformations) {
+            LongArrayList list = transformation.getSuccessors();
+            for (int i = 0; i < list.size(); i++) {
+                long id = list.getQuick(i);
+                if (!selected.contains(id)) {
+                    Transformation successor = solutionSpace.getTransformation(id);
+                    if (!successor.hasProperty(propertyExpanded) && !successor.hasProperty(propertyChecked) &&
+                        !hasInsufficientUtility(successor)) {
+                        selected.add(id);
+                        batch.add(successor);
+                    }
+                }
+            }
+        }
+
+        // Nothing to parallelize
+        if (batch.size() <= 1) {
+            return;
+        }
+
+        // Check and store
+        NodeChecker.Result[] results = checkerPool.check(batch, true);
+        for (int i = 0; i < results.length; i++) {
+            Transformation transformation = batch.get(i);
+            transformation.setChecked(results[i]);
+            trackOptimum(transformation);
+        }
+        progress((double)(System.currentTimeMillis() - timeStart) / (double)timeLimit);
+    }
+
     /**
     * Returns whether we can prune this Transformation
     * @param transformation
@@ -171,11 +383,10 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         // A Transformation (and it's direct and indirect successors, respectively) can be pruned if
         // the information loss is monotonic and the nodes's IL is greater or equal than the IL of the
         // global maximum (regardless of the anonymity criterion's monotonicity)
-        boolean metricMonotonic = checker.getMetric().isMonotonic() || checker.getConfiguration().getAbsoluteMaxOutliers() == 0;
         // Depending on monotony of metric we choose to compare either IL or monotonic subset with the global optimum
         boolean prune = false;
         if (getGlobalOptimum() != null) {
-            if (metricMonotonic) prune = transformation.getLowerBound().compareTo(getGlobalOptimum().getInformationLoss()) >= 0;
+            if (isMetricMonotonic()) prune = isInsufficient(transformation.getLowerBound());
         }
         return (prune || transformation.hasProperty(propertyExpanded));
     }
@@ -0,0 +1,197 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of transformation identifiers, which are stored as primitive longs.
+ * The priority of an element is computed once, when it is added, and stored by the
+ * implementing class in a form which can be compared without further lookups. The heap
+ * performs the same comparisons and swaps as java.util.PriorityQueue, which means that
+ * elements with equal priorities are returned in the same order.
+ *
+ * @author Fabian Prasser
+ */
+public abstract class LongPriorityQueue {
+
+    /** The identifiers */
+    private long[] ids;
+
+    /** The number of elements */
+    private int    size;
+
+    /**
+     * Creates a new instance
+     * @param capacity
+     */
+    protected LongPriorityQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.ids = new long[capacity];
+    }
+
+    /**
+     * Adds an element
+     * @param id
+     */
+    public void add(long id) {
+        if (size == ids.length) {
+            int capacity = ids.length << 1;
+            ids = Arrays.copyOf(ids, capacity);
+            resize(capacity);
+        }
+        ids[size] = id;
+        store(size, id);
+        siftUp(size++);
+    }
+
+    /**
+     * Removes all elements
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            release(i);
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     * @return
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes and returns the element with the lowest priority value. The queue must not be empty.
+     * @return
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        long result = ids[0];
+        int last = --size;
+        if (last != 0) {
+            ids[0] = ids[last];
+            copy(last, 0);
+            siftDown(0);
+        }
+        release(last);
+        return result;
+    }
+
+    /**
+     * Returns the number of elements
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Compares the priorities of the elements at the given indices
+     * @param index1
+     * @param index2
+     * @return
+     */
+    protected abstract int compare(int index1, int index2);
+
+    /**
+     * Copies the priority of the element at index 'from' to index 'to'
+     * @param from
+     * @param to
+     */
+    protected abstract void copy(int from, int to);
+
+    /**
+     * Releases the priority stored at the given index
+     * @param index
+     */
+    protected abstract void release(int index);
+
+    /**
+     * Resizes the storage for priorities to the given number of elements
+     * @param capacity
+     */
+    protected abstract void resize(int capacity);
+
+    /**
+     * Computes and stores the priority of the given element at the given index
+     * @param index
+     * @param id
+     */
+    protected abstract void store(int index, long id);
+
+    /**
+     * Swaps the priorities stored at the given indices
+     * @param index1
+     * @param index2
+     */
+    protected abstract void swap(int index1, int index2);
+
+    /**
+     * Moves the element at the given index down
+     * @param index
+     */
+    private void siftDown(int index) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && compare(child, right) > 0) {
+                child = right;
+            }
+            if (compare(index, child) <= 0) {
+                break;
+            }
+            swapElements(index, child);
+            index = child;
+        }
+    }
+
+    /**
+     * Moves the element at the given index up
+     * @param index
+     */
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(index, parent) >= 0) {
+                break;
+            }
+            swapElements(index, parent);
+            index = parent;
+        }
+    }
+
+    /**
+     * Swaps the elements at the given indices
+     * @param index1
+     * @param index2
+     */
+    private void swapElements(int index1, int index2) {
+        long temp = ids[index1];
+        ids[index1] = ids[index2];
+        ids[index2] = temp;
+        swap(index1, index2);
+    }
+}
@@ -82,8 +82,9 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     }
 
     @Override
-    public boolean isAnonymous(HashGroupifyEntry entry) {
+    public synchronized boolean isAnonymous(HashGroupifyEntry entry) {
         
+        // The tree is used as a buffer, so concurrent checks must be serialized
         // Empty data in tree
         System.arraycopy(empty, 0, tree, start, empty.length);
 
@@ -0,0 +1,89 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * This class schedules a batch of transformations, whose order of checking is irrelevant for
+ * the search algorithm. It distributes the transformations among a set of checkers and orders
+ * them, such that as many transformations as possible can be computed by rolling up the
+ * transformation checked before by the same checker, instead of transforming the whole dataset.
+ * Each checker repeatedly picks the transformation with the lowest level which can be rolled up
+ * from its last transformation, or the transformation with the lowest level, if there is none.
+ * The checkers pick in turns, which distributes the transformations evenly.
+ *
+ * @author Fabian Prasser
+ */
+public class CheckScheduler {
+
+    /**
+     * Schedules the given transformations.
+     *
+     * @param transformations The transformations
+     * @param last The transformation checked last by each checker, entries may be null
+     * @return For each checker, the indices of the transformations to check, in the order in which they should be checked
+     */
+    public static List<List<Integer>> schedule(List<Transformation> transformations, int[][] last) {
+
+        // Prepare
+        last = last.clone();
+        List<List<Integer>> result = new ArrayList<List<Integer>>();
+        for (int i = 0; i < last.length; i++) {
+            result.add(new ArrayList<Integer>());
+        }
+        int[][] generalizations = new int[transformations.size()][];
+        int[] levels = new int[transformations.size()];
+        for (int i = 0; i < generalizations.length; i++) {
+            generalizations[i] = transformations.get(i).getGeneralization();
+            levels[i] = transformations.get(i).getLevel();
+        }
+
+        // Assign
+        boolean[] assigned = new boolean[generalizations.length];
+        for (int remaining = generalizations.length; remaining > 0;) {
+            for (int checker = 0; checker < last.length && remaining > 0; checker++) {
+
+                // Find the transformation with the lowest level, preferably one allowing a rollup
+                int best = -1;
+                boolean bestRollup = false;
+                for (int i = 0; i < generalizations.length; i++) {
+                    if (!assigned[i]) {
+                        boolean rollup = last[checker] != null && StateMachine.isPossibleRollup(generalizations[i], last[checker]);
+                        if (best == -1 || (rollup && !bestRollup) || (rollup == bestRollup && levels[i] < levels[best])) {
+                            best = i;
+                            bestRollup = rollup;
+                        }
+                    }
+                }
+
+                // Assign
+                assigned[best] = true;
+                result.get(checker).add(best);
+                last[checker] = generalizations[best];
+                remaining--;
+            }
+        }
+
+        // Return
+        return result;
+    }
+}
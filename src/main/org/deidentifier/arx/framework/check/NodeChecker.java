@@ -20,6 +20,7 @@ package org.deidentifier.arx.framework.check;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.Transition;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -140,6 +141,32 @@ public class NodeChecker {
                        final double snapshotSizeDataset,
                        final double snapshotSizeSnapshot,
                        final SolutionSpace solutionSpace) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, solutionSpace, null, null);
+    }
+    
+    /**
+     * Creates a new NodeChecker instance, which uses the given dictionaries for the
+     * distributions stored in snapshots. The dictionaries may be shared with other checkers.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param dictionarySensValue The dictionary for values, or null to create a new dictionary
+     * @param dictionarySensFreq The dictionary for frequencies, or null to create a new dictionary
+     */
+    public NodeChecker(final DataManager manager,
+                       final Metric<?> metric,
+                       final ARXConfigurationInternal config,
+                       final int historyMaxSize,
+                       final double snapshotSizeDataset,
+                       final double snapshotSizeSnapshot,
+                       final SolutionSpace solutionSpace,
+                       IntArrayDictionary dictionarySensValue,
+                       IntArrayDictionary dictionarySensFreq) {
         
         // Initialize all operators
         this.metric = metric;
@@ -154,15 +181,15 @@ public class NodeChecker {
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
         
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
-        IntArrayDictionary dictionarySensValue;
-        IntArrayDictionary dictionarySensFreq;
-        if ((config.getRequirements() & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
-            dictionarySensValue = new IntArrayDictionary(initialSize);
-            dictionarySensFreq = new IntArrayDictionary(initialSize);
-        } else {
-            // Just to allow byte code instrumentation
-            dictionarySensValue = new IntArrayDictionary(0);
-            dictionarySensFreq = new IntArrayDictionary(0);
+        if (dictionarySensValue == null || dictionarySensFreq == null) {
+            if ((config.getRequirements() & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+                dictionarySensValue = new IntArrayDictionary(initialSize);
+                dictionarySensFreq = new IntArrayDictionary(initialSize);
+            } else {
+                // Just to allow byte code instrumentation
+                dictionarySensValue = new IntArrayDictionary(0);
+                dictionarySensFreq = new IntArrayDictionary(0);
+            }
         }
         
         this.history = new History(manager.getDataGeneralized().getArray().length,
@@ -340,6 +367,14 @@ public class NodeChecker {
         return history;
     }
     
+    /**
+     * Returns the transformation which has been checked last, if any
+     * @return
+     */
+    public int[] getLastTransformation() {
+        return stateMachine.getLastNode();
+    }
+
     /**
      * Returns the utility measure
      * @return
@@ -347,4 +382,22 @@ public class NodeChecker {
     public Metric<?> getMetric() {
         return metric;
     }
+
+    /**
+     * Returns the number of checks which have been performed with the given type of transition
+     * @param type
+     * @return
+     */
+    public long getNumberOfTransitions(TransitionType type) {
+        return stateMachine.getNumberOfTransitions(type);
+    }
+
+    /**
+     * Sets the number of threads used for transforming all rows of the dataset
+     * during a single check. Setting the number to one releases all associated resources.
+     * @param numThreads
+     */
+    public void setNumberOfThreadsPerTransformation(int numThreads) {
+        this.transformer.setNumberOfThreads(numThreads);
+    }
 }
@@ -0,0 +1,321 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+import org.deidentifier.arx.framework.check.distribution.ConcurrentIntArrayDictionary;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * A pool of node checkers which can be used to check several transformations in parallel.
+ * Each worker thread uses its own checker, including its own buffers, groupifies and history.
+ * The dictionaries for the distributions stored in the histories are shared by all checkers.
+ * The transformations of a batch are assigned to the checkers by a {@link CheckScheduler}, which
+ * allows each checker to roll up its previous transformation as often as possible.
+ * The pool may additionally contain checkers running in worker processes, which are accessed
+ * via {@link RemoteNodeChecker}s and receive all transformations assigned to them as one message.
+ * Batches are processed synchronously: the calling thread waits until all transformations
+ * of a batch have been checked. While a batch is being processed, the calling thread must
+ * not modify the solution space.
+ *
+ * @author Fabian Prasser
+ */
+public class NodeCheckerPool {
+
+    /** The executor */
+    private final ExecutorService            executor;
+
+    /** All checkers */
+    private final List<NodeChecker>          allCheckers;
+
+    /** All checkers running in worker processes */
+    private final List<RemoteNodeChecker>    remoteCheckers;
+
+    /** The number of threads */
+    private final int                        numThreads;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset The snapshot size dataset
+     * @param snapshotSizeSnapshot The snapshot size snapshot
+     * @param solutionSpace The solution space
+     * @param numThreads The number of threads
+     */
+    public NodeCheckerPool(final DataManager manager,
+                           final Metric<?> metric,
+                           final ARXConfigurationInternal config,
+                           final int historyMaxSize,
+                           final double snapshotSizeDataset,
+                           final double snapshotSizeSnapshot,
+                           final SolutionSpace solutionSpace,
+                           final int numThreads) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot,
+             solutionSpace, numThreads, new ArrayList<RemoteNodeChecker>());
+    }
+
+    /**
+     * Creates a new pool, which consists of the given number of local checkers and the given remote checkers.
+     * The pool takes ownership of the remote checkers and closes them when it is shut down.
+     *
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset The snapshot size dataset
+     * @param snapshotSizeSnapshot The snapshot size snapshot
+     * @param solutionSpace The solution space
+     * @param numLocalThreads The number of local threads, may be 0
+     * @param remoteCheckers The remote checkers
+     */
+    public NodeCheckerPool(final DataManager manager,
+                           final Metric<?> metric,
+                           final ARXConfigurationInternal config,
+                           final int historyMaxSize,
+                           final double snapshotSizeDataset,
+                           final double snapshotSizeSnapshot,
+                           final SolutionSpace solutionSpace,
+                           final int numLocalThreads,
+                           final List<RemoteNodeChecker> remoteCheckers) {
+
+        if (numLocalThreads < 0 || numLocalThreads + remoteCheckers.size() < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        this.numThreads = numLocalThreads + remoteCheckers.size();
+        this.allCheckers = new ArrayList<NodeChecker>();
+        this.remoteCheckers = new ArrayList<RemoteNodeChecker>(remoteCheckers);
+        
+        // Shared dictionaries
+        IntArrayDictionary dictionarySensValue = null;
+        IntArrayDictionary dictionarySensFreq = null;
+        if (numLocalThreads > 0 && (config.getRequirements() & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+            int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
+            dictionarySensValue = new ConcurrentIntArrayDictionary(initialSize);
+            dictionarySensFreq = new ConcurrentIntArrayDictionary(initialSize);
+        }
+        
+        for (int i = 0; i < numLocalThreads; i++) {
+            NodeChecker checker = new NodeChecker(manager,
+                                                  metric,
+                                                  config,
+                                                  historyMaxSize,
+                                                  snapshotSizeDataset,
+                                                  snapshotSizeSnapshot,
+                                                  solutionSpace,
+                                                  dictionarySensValue,
+                                                  dictionarySensFreq);
+            this.allCheckers.add(checker);
+        }
+        this.executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private int count = 0;
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX NodeChecker " + (count++));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Checks the given transformations in parallel. Blocks until all results are available.
+     *
+     * @param transformations
+     * @param forceMeasureInfoLoss
+     * @return The results, in the order of the given transformations
+     */
+    public NodeChecker.Result[] check(final List<Transformation> transformations, final boolean forceMeasureInfoLoss) {
+
+        // Schedule, local checkers first
+        int[][] last = new int[numThreads][];
+        for (int i = 0; i < allCheckers.size(); i++) {
+            last[i] = allCheckers.get(i).getLastTransformation();
+        }
+        for (int i = 0; i < remoteCheckers.size(); i++) {
+            last[allCheckers.size() + i] = remoteCheckers.get(i).getLastTransformation();
+        }
+        List<List<Integer>> schedule = CheckScheduler.schedule(transformations, last);
+
+        // Submit one task per checker
+        final NodeChecker.Result[] results = new NodeChecker.Result[transformations.size()];
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < allCheckers.size(); i++) {
+            final NodeChecker checker = allCheckers.get(i);
+            final List<Integer> indices = schedule.get(i);
+            if (!indices.isEmpty()) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int index : indices) {
+                            results[index] = checker.check(transformations.get(index), forceMeasureInfoLoss);
+                        }
+                        return null;
+                    }
+                }));
+            }
+        }
+        for (int i = 0; i < remoteCheckers.size(); i++) {
+            final RemoteNodeChecker checker = remoteCheckers.get(i);
+            final List<Integer> indices = schedule.get(allCheckers.size() + i);
+            if (!indices.isEmpty()) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        List<Transformation> batch = new ArrayList<Transformation>();
+                        for (int index : indices) {
+                            batch.add(transformations.get(index));
+                        }
+                        NodeChecker.Result[] batchResults = checker.check(batch, forceMeasureInfoLoss);
+                        for (int j = 0; j < batchResults.length; j++) {
+                            results[indices.get(j)] = batchResults[j];
+                        }
+                        return null;
+                    }
+                }));
+            }
+        }
+
+        // Wait
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while checking transformations", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of threads, including threads which are used for accessing remote checkers
+     * @return
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Returns the number of checks which have been performed by all checkers with the given type of transition
+     * @param type
+     * @return
+     */
+    public long getNumberOfTransitions(TransitionType type) {
+        long result = 0;
+        for (NodeChecker checker : allCheckers) {
+            result += checker.getNumberOfTransitions(type);
+        }
+        for (RemoteNodeChecker checker : remoteCheckers) {
+            result += checker.getNumberOfTransitions(type);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the size of the second tier of the histories of all checkers in bytes.
+     * Must not be called while a batch is being processed.
+     *
+     * @param bytes
+     */
+    public void setHistoryDiskSize(long bytes) {
+        for (NodeChecker checker : allCheckers) {
+            checker.getHistory().setDiskSize(bytes);
+        }
+        for (RemoteNodeChecker checker : remoteCheckers) {
+            checker.setHistoryDiskSize(bytes);
+        }
+    }
+
+    /**
+     * Sets the maximal size of the snapshots in the histories of all checkers in bytes.
+     * Must not be called while a batch is being processed.
+     *
+     * @param bytes
+     */
+    public void setHistoryMemorySize(long bytes) {
+        for (NodeChecker checker : allCheckers) {
+            checker.getHistory().setMemorySize(bytes);
+        }
+        for (RemoteNodeChecker checker : remoteCheckers) {
+            checker.setHistoryMemorySize(bytes);
+        }
+    }
+
+    /**
+     * Sets the storage strategy of the histories of all checkers.
+     * Must not be called while a batch is being processed.
+     *
+     * @param strategy
+     */
+    public void setHistoryStorageStrategy(StorageStrategy strategy) {
+        for (NodeChecker checker : allCheckers) {
+            checker.getHistory().setStorageStrategy(strategy);
+        }
+        for (RemoteNodeChecker checker : remoteCheckers) {
+            checker.setHistoryStorageStrategy(strategy);
+        }
+    }
+
+    /**
+     * Stops all threads, closes the connections to all workers and releases all resources
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (NodeChecker checker : allCheckers) {
+            checker.getHistory().reset();
+        }
+        allCheckers.clear();
+        for (RemoteNodeChecker checker : remoteCheckers) {
+            checker.close();
+        }
+        remoteCheckers.clear();
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A proxy for a node checker, which runs in a worker process and is accessed via a socket.
+ * When connecting, the proxy sends a replica of the data manager and the initialized configuration
+ * to the worker, which creates its own checker, including its own solution space and history.
+ * Afterwards, batches of transformations are sent to the worker, which checks them in the given
+ * order and returns the results. Before any object is exchanged, coordinator and worker prove to
+ * each other that they know a shared secret, see {@link #authenticate(Socket, String, boolean)}.
+ * Afterwards, the protocol uses Java serialization, where only the classes accepted by
+ * {@link RemoteObjectInputStream} are de-serialized. Note that the connection is not encrypted:
+ * the replica contains the data which is to be anonymized. The worker side of the protocol is
+ * implemented by {@link #serve(NodeChecker, SolutionSpace, ObjectInputStream, ObjectOutputStream)}.
+ * Instances are not thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class RemoteNodeChecker {
+
+    /** Command: check a batch of transformations */
+    private static final int         COMMAND_CHECK            = 0;
+
+    /** Command: close the connection */
+    private static final int         COMMAND_CLOSE            = 1;
+
+    /** Command: set the size of the second tier of the history */
+    private static final int         COMMAND_DISK_SIZE        = 2;
+
+    /** Command: set the storage strategy of the history */
+    private static final int         COMMAND_STORAGE_STRATEGY = 3;
+
+    /** Command: set the size of the snapshots in the history in bytes */
+    private static final int         COMMAND_MEMORY_SIZE      = 4;
+
+    /** The algorithm used for proving the knowledge of the shared secret */
+    private static final String      HANDSHAKE_ALGORITHM      = "HmacSHA256";
+
+    /** The length of the challenges exchanged during the handshake */
+    private static final int         HANDSHAKE_CHALLENGE      = 32;
+
+    /** The time after which a handshake is aborted in milliseconds */
+    private static final int         HANDSHAKE_TIMEOUT        = 10000;
+
+    /** Role of the coordinator in the handshake */
+    private static final byte        ROLE_COORDINATOR         = 0;
+
+    /** Role of the worker in the handshake */
+    private static final byte        ROLE_WORKER              = 1;
+
+    /** The address of the worker */
+    private final String             address;
+
+    /** The input stream */
+    private final ObjectInputStream  input;
+
+    /** The transformation which has been checked last, if any */
+    private int[]                    last                     = null;
+
+    /** The output stream */
+    private final ObjectOutputStream output;
+
+    /** The socket */
+    private final Socket             socket;
+
+    /** The number of transitions of each type performed by the worker */
+    private long[]                   transitions              = new long[TransitionType.values().length];
+
+    /**
+     * Connects to the given worker and sends all data needed for creating a node checker.
+     *
+     * @param address The address of the worker
+     * @param secret The secret shared with the worker
+     * @param manager The manager
+     * @param config The configuration, which must have been initialized with the manager
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @throws IOException
+     */
+    public RemoteNodeChecker(final InetSocketAddress address,
+                             final String secret,
+                             final DataManager manager,
+                             final ARXConfiguration config,
+                             final int historyMaxSize,
+                             final double snapshotSizeDataset,
+                             final double snapshotSizeSnapshot) throws IOException {
+
+        this.address = address.toString();
+        this.socket = new Socket();
+        try {
+            this.socket.setTcpNoDelay(true);
+            this.socket.connect(address);
+            authenticate(socket, secret, false);
+            this.output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.output.flush();
+            this.input = new RemoteObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            // Send replica
+            this.output.writeObject(manager);
+            this.output.writeObject(config);
+            this.output.writeInt(historyMaxSize);
+            this.output.writeDouble(snapshotSizeDataset);
+            this.output.writeDouble(snapshotSizeSnapshot);
+            this.send();
+            this.receive();
+        } catch (IOException e) {
+            this.socket.close();
+            throw e;
+        } catch (RuntimeException e) {
+            this.socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the given transformations in the given order. Blocks until all results are available.
+     *
+     * @param transformations
+     * @param forceMeasureInfoLoss
+     * @return The results, in the order of the given transformations
+     */
+    public NodeChecker.Result[] check(final List<Transformation> transformations, final boolean forceMeasureInfoLoss) {
+
+        NodeChecker.Result[] results = new NodeChecker.Result[transformations.size()];
+        try {
+
+            // Send the transformations whose result is not known
+            int count = 0;
+            for (Transformation transformation : transformations) {
+                if (!(transformation.getData() instanceof NodeChecker.Result)) {
+                    count++;
+                }
+            }
+            if (count == 0) {
+                for (int i = 0; i < results.length; i++) {
+                    results[i] = (NodeChecker.Result) transformations.get(i).getData();
+                }
+                return results;
+            }
+            output.writeInt(COMMAND_CHECK);
+            output.writeBoolean(forceMeasureInfoLoss);
+            output.writeInt(count);
+            for (Transformation transformation : transformations) {
+                if (!(transformation.getData() instanceof NodeChecker.Result)) {
+                    output.writeObject(transformation.getGeneralization());
+                    last = transformation.getGeneralization();
+                }
+            }
+            send();
+
+            // Receive the results
+            receive();
+            for (int i = 0; i < results.length; i++) {
+                Transformation transformation = transformations.get(i);
+                if (transformation.getData() instanceof NodeChecker.Result) {
+                    results[i] = (NodeChecker.Result) transformation.getData();
+                } else {
+                    Boolean privacyModelFulfilled = (Boolean) input.readObject();
+                    Boolean minimalClassSizeFulfilled = (Boolean) input.readObject();
+                    InformationLoss<?> informationLoss = (InformationLoss<?>) input.readObject();
+                    InformationLoss<?> lowerBound = (InformationLoss<?>) input.readObject();
+                    // Metrics may return the lower bound which is already associated with the transformation
+                    results[i] = new NodeChecker.Result(privacyModelFulfilled,
+                                                        minimalClassSizeFulfilled,
+                                                        informationLoss,
+                                                        lowerBound != null ? lowerBound : transformation.getLowerBound());
+                }
+            }
+            transitions = (long[]) input.readObject();
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException("Communication with worker " + address + " failed", e);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Communication with worker " + address + " failed", e);
+        }
+    }
+
+    /**
+     * Closes the connection. The worker releases all resources associated with it.
+     */
+    public void close() {
+        try {
+            output.writeInt(COMMAND_CLOSE);
+            send();
+        } catch (IOException e) {
+            // Ignore
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * Returns the transformation which has been checked last, if any
+     * @return
+     */
+    public int[] getLastTransformation() {
+        return last;
+    }
+
+    /**
+     * Returns the number of checks which have been performed by the worker with the given type of transition
+     * @param type
+     * @return
+     */
+    public long getNumberOfTransitions(TransitionType type) {
+        return transitions[type.ordinal()];
+    }
+
+    /**
+     * Sets the size of the second tier of the history of the worker in bytes.
+     *
+     * @param bytes
+     */
+    public void setHistoryDiskSize(long bytes) {
+        try {
+            output.writeInt(COMMAND_DISK_SIZE);
+            output.writeLong(bytes);
+            send();
+            receive();
+        } catch (IOException e) {
+            throw new RuntimeException("Communication with worker " + address + " failed", e);
+        }
+    }
+
+    /**
+     * Sets the maximal size of the snapshots in the history of the worker in bytes.
+     *
+     * @param bytes
+     */
+    public void setHistoryMemorySize(long bytes) {
+        try {
+            output.writeInt(COMMAND_MEMORY_SIZE);
+            output.writeLong(bytes);
+            send();
+            receive();
+        } catch (IOException e) {
+            throw new RuntimeException("Communication with worker " + address + " failed", e);
+        }
+    }
+
+    /**
+     * Sets the storage strategy of the history of the worker.
+     *
+     * @param strategy
+     */
+    public void setHistoryStorageStrategy(StorageStrategy strategy) {
+        try {
+            output.writeInt(COMMAND_STORAGE_STRATEGY);
+            output.writeObject(strategy);
+            send();
+            receive();
+        } catch (IOException e) {
+            throw new RuntimeException("Communication with worker " + address + " failed", e);
+        }
+    }
+
+    /**
+     * Receives the status of a reply and throws an exception, if the worker reported an error
+     * @throws IOException
+     */
+    private void receive() throws IOException {
+        if (!input.readBoolean()) {
+            throw new RuntimeException("Worker " + address + " failed: " + input.readUTF());
+        }
+    }
+
+    /**
+     * Sends the current message
+     * @throws IOException
+     */
+    private void send() throws IOException {
+        output.flush();
+        output.reset();
+    }
+
+    /**
+     * Performs a mutual challenge-response handshake on the given, freshly opened connection.
+     * Both sides send a random challenge and answer the challenge of the other side with an
+     * HMAC keyed with the shared secret, which also covers the role of the sender. Nothing
+     * is de-serialized before the handshake succeeded.
+     *
+     * @param socket
+     * @param secret The shared secret
+     * @param worker Whether this is the worker side of the connection
+     * @throws IOException If the handshake fails
+     */
+    public static void authenticate(Socket socket, String secret, boolean worker) throws IOException {
+
+        // Prepare
+        int timeout = socket.getSoTimeout();
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT);
+        DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+        DataInputStream input = new DataInputStream(socket.getInputStream());
+        byte own = worker ? ROLE_WORKER : ROLE_COORDINATOR;
+        byte other = worker ? ROLE_COORDINATOR : ROLE_WORKER;
+
+        // Exchange challenges
+        byte[] challenge = new byte[HANDSHAKE_CHALLENGE];
+        new SecureRandom().nextBytes(challenge);
+        output.write(challenge);
+        output.flush();
+        byte[] received = new byte[HANDSHAKE_CHALLENGE];
+        input.readFully(received);
+
+        // Exchange responses
+        output.write(getResponse(secret, own, received));
+        output.flush();
+        byte[] expected = getResponse(secret, other, challenge);
+        byte[] response = new byte[expected.length];
+        input.readFully(response);
+        if (!MessageDigest.isEqual(expected, response)) {
+            throw new IOException("Authentication of " + socket.getRemoteSocketAddress() + " failed");
+        }
+
+        // Done
+        socket.setSoTimeout(timeout);
+    }
+
+    /**
+     * Reports a failure to the coordinator.
+     *
+     * @param output
+     * @param error
+     * @throws IOException
+     */
+    public static void fail(ObjectOutputStream output, Throwable error) throws IOException {
+        output.writeBoolean(false);
+        output.writeUTF(String.valueOf(error));
+        output.flush();
+    }
+
+    /**
+     * Reports success to the coordinator.
+     *
+     * @param output
+     * @throws IOException
+     */
+    public static void succeed(ObjectOutputStream output) throws IOException {
+        output.writeBoolean(true);
+        output.flush();
+    }
+
+    /**
+     * Returns the response to the given challenge.
+     *
+     * @param secret
+     * @param role
+     * @param challenge
+     * @return
+     */
+    private static byte[] getResponse(String secret, byte role, byte[] challenge) {
+        try {
+            Mac mac = Mac.getInstance(HANDSHAKE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HANDSHAKE_ALGORITHM));
+            mac.update(role);
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Implements the worker side of the protocol. Processes commands received from the coordinator
+     * with the given checker, until the connection is closed. The data needed for creating the
+     * checker must have been read from the stream and its creation must have been acknowledged
+     * with {@link #succeed(ObjectOutputStream)}.
+     *
+     * @param checker
+     * @param solutionSpace
+     * @param input
+     * @param output
+     * @throws IOException
+     */
+    public static void serve(NodeChecker checker,
+                             SolutionSpace solutionSpace,
+                             ObjectInputStream input,
+                             ObjectOutputStream output) throws IOException {
+
+        long[] transitions = new long[TransitionType.values().length];
+        while (true) {
+
+            // Read command
+            int command;
+            try {
+                command = input.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+
+            // Execute
+            try {
+                switch (command) {
+                case COMMAND_CHECK:
+                    boolean forceMeasureInfoLoss = input.readBoolean();
+                    NodeChecker.Result[] results = new NodeChecker.Result[input.readInt()];
+                    int[][] generalizations = new int[results.length][];
+                    for (int i = 0; i < generalizations.length; i++) {
+                        generalizations[i] = (int[]) input.readObject();
+                    }
+                    for (int i = 0; i < generalizations.length; i++) {
+                        results[i] = checker.check(solutionSpace.getTransformation(generalizations[i]), forceMeasureInfoLoss);
+                    }
+                    for (TransitionType type : TransitionType.values()) {
+                        transitions[type.ordinal()] = checker.getNumberOfTransitions(type);
+                    }
+                    output.writeBoolean(true);
+                    for (NodeChecker.Result result : results) {
+                        output.writeObject(result.privacyModelFulfilled);
+                        output.writeObject(result.minimalClassSizeFulfilled);
+                        output.writeObject(result.informationLoss);
+                        output.writeObject(result.lowerBound);
+                    }
+                    output.writeObject(transitions);
+                    break;
+                case COMMAND_CLOSE:
+                    return;
+                case COMMAND_DISK_SIZE:
+                    checker.getHistory().setDiskSize(input.readLong());
+                    output.writeBoolean(true);
+                    break;
+                case COMMAND_MEMORY_SIZE:
+                    checker.getHistory().setMemorySize(input.readLong());
+                    output.writeBoolean(true);
+                    break;
+                case COMMAND_STORAGE_STRATEGY:
+                    checker.getHistory().setStorageStrategy((StorageStrategy) input.readObject());
+                    output.writeBoolean(true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command);
+                }
+            } catch (ClassNotFoundException e) {
+                fail(output, e);
+                return;
+            } catch (RuntimeException e) {
+                fail(output, e);
+                return;
+            }
+
+            // Send reply
+            output.flush();
+            output.reset();
+        }
+    }
+}
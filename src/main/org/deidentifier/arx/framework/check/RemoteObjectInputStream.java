@@ -0,0 +1,138 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An object input stream for the communication between coordinators and workers, which only
+ * resolves classes that are part of the replica of the encoded data and configuration, or of the
+ * results of checks. All other classes are rejected before they are instantiated, which prevents
+ * the de-serialization of unexpected object graphs sent by a peer.
+ *
+ * @author Fabian Prasser
+ */
+public class RemoteObjectInputStream extends ObjectInputStream {
+
+    /** Packages whose classes may be resolved */
+    private static final String[]    PACKAGES = { "org.deidentifier.arx.",
+                                                  "com.carrotsearch.hppc." };
+
+    /** Further classes which may be resolved */
+    private static final Set<String> CLASSES  = new HashSet<String>(Arrays.asList(new String[] {
+                                                  "java.lang.Boolean",
+                                                  "java.lang.Byte",
+                                                  "java.lang.Character",
+                                                  "java.lang.Double",
+                                                  "java.lang.Enum",
+                                                  "java.lang.Float",
+                                                  "java.lang.Integer",
+                                                  "java.lang.Long",
+                                                  "java.lang.Number",
+                                                  "java.lang.Short",
+                                                  "java.lang.String",
+                                                  "java.math.BigDecimal",
+                                                  "java.math.BigInteger",
+                                                  "java.text.DateFormat",
+                                                  "java.text.DateFormatSymbols",
+                                                  "java.text.DecimalFormat",
+                                                  "java.text.DecimalFormatSymbols",
+                                                  "java.text.Format",
+                                                  "java.text.NumberFormat",
+                                                  "java.text.SimpleDateFormat",
+                                                  "java.util.ArrayList",
+                                                  "java.util.Date",
+                                                  "java.util.GregorianCalendar",
+                                                  "java.util.Calendar",
+                                                  "java.util.HashMap",
+                                                  "java.util.HashSet",
+                                                  "java.util.LinkedHashMap",
+                                                  "java.util.LinkedHashSet",
+                                                  "java.util.Locale",
+                                                  "java.util.TreeMap",
+                                                  "java.util.TreeSet",
+                                                  "java.util.regex.Pattern",
+                                                  "sun.util.calendar.ZoneInfo",
+                                                  "java.util.SimpleTimeZone",
+                                                  "java.util.TimeZone" }));
+
+    /**
+     * Creates a new instance.
+     *
+     * @param input
+     * @throws IOException
+     */
+    public RemoteObjectInputStream(InputStream input) throws IOException {
+        super(input);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+        if (!isAllowed(descriptor.getName())) {
+            throw new InvalidClassException(descriptor.getName(), "Class is not allowed in communication with workers");
+        }
+        return super.resolveClass(descriptor);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+        throw new InvalidClassException("Proxy classes are not allowed in communication with workers");
+    }
+
+    /**
+     * Returns whether the class with the given name may be resolved.
+     *
+     * @param name
+     * @return
+     */
+    private boolean isAllowed(String name) {
+
+        // Arrays
+        int dimensions = 0;
+        while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions > 0) {
+            if (name.length() == dimensions + 1) {
+                return true; // Primitive type
+            }
+            if (name.charAt(dimensions) != 'L' || !name.endsWith(";")) {
+                return false;
+            }
+            name = name.substring(dimensions + 1, name.length() - 1);
+        }
+
+        // Classes
+        if (CLASSES.contains(name)) {
+            return true;
+        }
+        for (String prefix : PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -80,6 +80,9 @@ public class StateMachine {
     /** The node for the current snapshot. */
     private int[]      snapshotNode;
 
+    /** The number of transitions performed, per type. */
+    private final long[] transitions = new long[TransitionType.values().length];
+
     /**
      * Instantiates a new state machine.
      * 
@@ -110,6 +113,16 @@ public class StateMachine {
         return lastTransition;
     }
 
+    /**
+     * Returns the number of transitions of the given type, which have been performed.
+     *
+     * @param type
+     * @return
+     */
+    public long getNumberOfTransitions(TransitionType type) {
+        return transitions[type.ordinal()];
+    }
+
     /**
      * Resets the state machine.
      */
@@ -171,6 +184,7 @@ public class StateMachine {
         // Store
         lastNode = currentNode;
         lastTransition = result;
+        transitions[result.type.ordinal()]++;
 
         // Return
         return result;
@@ -178,7 +192,7 @@ public class StateMachine {
 
     /**
      * Returns the projection. All bits are set for the columns that don't need
-     * to be checked
+     * to be checked. Only the first 64 columns can be projected.
      * 
      * @param currentNode
      *            the current node
@@ -186,7 +200,8 @@ public class StateMachine {
      */
     private long getProjection(final int[] currentNode) {
         long projection = 0L;
-        for (int i = 0; i < currentNode.length; i++) {
+        final int length = Math.min(currentNode.length, 64);
+        for (int i = 0; i < length; i++) {
             if (currentNode[i] == lastNode[i]) {
                 projection |= 1L << i;
             }
@@ -202,11 +217,7 @@ public class StateMachine {
      * @return true, if is possible rollup
      */
     private boolean isPossibleRollup(final int[] currentNode) {
-        for (int i = 0; i < lastNode.length; i++) {
-            if (currentNode[i] < lastNode[i]) { return false; }
-        }
-        return true;
-
+        return isPossibleRollup(currentNode, lastNode);
     }
 
     /**
@@ -223,6 +234,21 @@ public class StateMachine {
         return false;
     }
 
+    /**
+     * Returns whether a transformation can be computed by rolling up another transformation,
+     * i.e. whether it is a generalization of or equal to the other transformation.
+     *
+     * @param transformation
+     * @param other
+     * @return
+     */
+    public static boolean isPossibleRollup(final int[] transformation, final int[] other) {
+        for (int i = 0; i < other.length; i++) {
+            if (transformation[i] < other[i]) { return false; }
+        }
+        return true;
+    }
+
     /**
      * Is node2 a predecessor of or equal to node1?.
      *
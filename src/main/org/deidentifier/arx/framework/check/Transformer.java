@@ -17,6 +17,14 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
@@ -49,6 +57,9 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** The minimal number of rows per partition when transforming in parallel. */
+    private static final int                   MIN_ROWS_PER_PARTITION = 10000;
+
     /** The config. */
     protected final ARXConfigurationInternal   config;
 
@@ -76,6 +87,18 @@ public class Transformer {
     /** The buffer. */
     protected int[][]                          outputGeneralized;
 
+    /** The number of threads used for transforming all rows. */
+    private int                                numThreads             = 1;
+
+    /** The executor, if rows are transformed in parallel. */
+    private ExecutorService                    executor               = null;
+
+    /** The instances for each partition, if rows are transformed in parallel. */
+    private AbstractTransformer[][]            partitionInstances     = null;
+
+    /** The groupify operators for each partition, if rows are transformed in parallel. */
+    private HashGroupify[]                     partitionGroupifies    = null;
+
     /**
      * Instantiates a new transformer.
      *
@@ -96,7 +119,6 @@ public class Transformer {
         this.config = config;
         this.inputGeneralized = inputGeneralized;
         this.hierarchies = hierarchies;
-        this.instances = new AbstractTransformer[16];
         this.outputGeneralized = new int[inputGeneralized.length][];
         
         for (int i = 0; i < inputGeneralized.length; i++) {
@@ -108,7 +130,7 @@ public class Transformer {
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
 
-        buildApplicators();
+        this.instances = buildApplicators();
     }
 
     /**
@@ -192,10 +214,67 @@ public class Transformer {
         return outputGeneralized;
     }
 
+    /**
+     * Returns the number of threads used for transforming all rows.
+     *
+     * @return
+     */
+    public int getNumberOfThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Sets the number of threads used for transforming all rows of the dataset, i.e. for
+     * transitions which cannot utilize rollups or snapshots. Rows are partitioned into ranges,
+     * which are transformed and grouped independently and merged afterwards. Setting the
+     * number of threads to one releases all associated resources.
+     *
+     * @param numThreads
+     */
+    public void setNumberOfThreads(final int numThreads) {
+        
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        
+        // Release
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            partitionInstances = null;
+            partitionGroupifies = null;
+        }
+        this.numThreads = numThreads;
+        if (numThreads == 1) {
+            return;
+        }
+
+        // Prepare
+        int capacity = (int) (inputGeneralized.length * 0.01d / numThreads);
+        partitionInstances = new AbstractTransformer[numThreads][];
+        partitionGroupifies = new HashGroupify[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            partitionInstances[i] = buildApplicators();
+            partitionGroupifies[i] = new HashGroupify(capacity, config);
+        }
+        executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private int count = 0;
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX Transformer " + (count++));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
     /**
      * Builds the applicators.
+     * 
+     * @return the applicators
      */
-    private void buildApplicators() {
+    private AbstractTransformer[] buildApplicators() {
+        final AbstractTransformer[] instances = new AbstractTransformer[16];
         instances[15] = new Transformer15(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
@@ -292,6 +371,7 @@ public class Transformer {
                                           dictionarySensValue,
                                           dictionarySensFreq,
                                           config);
+        return instances;
     }
 
     /**
@@ -342,6 +422,12 @@ public class Transformer {
             break;
         }
 
+        // Transform partitions of the dataset in parallel
+        if (transition == TransitionType.UNOPTIMIZED && executor != null &&
+            stopIndex >= MIN_ROWS_PER_PARTITION * 2) {
+            return applyAllParallel(projection, state, target, stopIndex);
+        }
+
         AbstractTransformer app = null;
 
         app = getApplicator(projection);
@@ -361,6 +447,75 @@ public class Transformer {
         return app.call();
     }
 
+    /**
+     * Transforms all rows in parallel. Each partition is grouped into a separate groupify
+     * operator. The partial results are merged in the order of the partitions, which
+     * results in the same classes, representatives, distributions and order of classes
+     * as sequential processing.
+     * 
+     * @param projection the projection
+     * @param state the state
+     * @param target the target
+     * @param rows the number of rows
+     * @return the hash groupify
+     */
+    private HashGroupify applyAllParallel(final long projection,
+                                          final int[] state,
+                                          final HashGroupify target,
+                                          final int rows) {
+
+        // Submit
+        int partitions = Math.min(numThreads, rows / MIN_ROWS_PER_PARTITION);
+        List<Future<HashGroupify>> futures = new ArrayList<Future<HashGroupify>>();
+        for (int i = 0; i < partitions; i++) {
+            int startIndex = (int) ((long) rows * i / partitions);
+            int stopIndex = (int) ((long) rows * (i + 1) / partitions);
+            AbstractTransformer app = getApplicator(partitionInstances[i], projection);
+            app.init(projection,
+                     state,
+                     partitionGroupifies[i],
+                     null,
+                     null,
+                     TransitionType.UNOPTIMIZED,
+                     startIndex,
+                     stopIndex,
+                     0,
+                     null,
+                     outputGeneralized);
+            futures.add(executor.submit(app));
+        }
+
+        // Merge
+        target.stateClear();
+        try {
+            for (Future<HashGroupify> future : futures) {
+                HashGroupify partial = future.get();
+                HashGroupifyEntry entry = partial.getFirstEquivalenceClass();
+                while (entry != null) {
+                    target.addFromGroupify(entry.key, entry.distributions, entry.representative, entry.count, entry.pcount);
+                    entry = entry.nextOrdered;
+                }
+                partial.stateClear();
+            }
+        } catch (InterruptedException e) {
+            for (Future<HashGroupify> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while transforming data", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+        return target;
+    }
+
     /**
      * Gets the applicator.
      * 
@@ -368,6 +523,17 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getApplicator(final long projection) {
+        return getApplicator(instances, projection);
+    }
+
+    /**
+     * Gets the applicator from the given instances.
+     * 
+     * @param instances the instances
+     * @param projection the projection
+     * @return the applicator
+     */
+    private AbstractTransformer getApplicator(final AbstractTransformer[] instances, final long projection) {
         final int index = dimensions - Long.bitCount(projection);
         if (index > (instances.length - 1)) {
             return instances[0];
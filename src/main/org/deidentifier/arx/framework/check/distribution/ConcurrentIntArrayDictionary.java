@@ -0,0 +1,248 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.distribution;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A dictionary which can be shared by multiple threads. Lookups are performed without
+ * locking and reference counts are maintained atomically. Entries are stored in chunks,
+ * which allows to retrieve them by index without locking. A lock is only acquired when
+ * a new chunk must be allocated.
+ *
+ * @author Fabian Prasser
+ */
+public class ConcurrentIntArrayDictionary extends IntArrayDictionary {
+
+    /**
+     * An entry
+     * @author Fabian Prasser
+     */
+    private static final class Entry {
+
+        /** The key */
+        private final Key           key;
+        /** The index */
+        private final int           index;
+        /** The reference counter */
+        private final AtomicInteger refCount = new AtomicInteger(1);
+
+        /**
+         * Creates a new entry
+         * @param key
+         * @param index
+         */
+        private Entry(Key key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        /**
+         * Increments the reference counter, if the entry has not been removed
+         * @return Whether the counter has been incremented
+         */
+        private boolean incRefCount() {
+            while (true) {
+                int count = refCount.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (refCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A key
+     * @author Fabian Prasser
+     */
+    private static final class Key {
+
+        /** The array */
+        private final int[] array;
+        /** The hash code */
+        private final int   hashcode;
+
+        /**
+         * Creates a new key
+         * @param array
+         */
+        private Key(int[] array) {
+            this.array = array;
+            this.hashcode = hashCodeMURMUR(array);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hashcode == key.hashcode && Arrays.equals(array, key.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /** The number of bits used for addressing entries within a chunk. */
+    private static final int                              CHUNK_BITS = 12;
+
+    /** The size of a chunk. */
+    private static final int                              CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /** The chunks storing entries by index. */
+    private volatile AtomicReferenceArray<Entry>[]        chunks;
+
+    /** The entries. */
+    private final ConcurrentHashMap<Key, Entry>           entries;
+
+    /** The next index. */
+    private final AtomicInteger                           nextIndex  = new AtomicInteger(0);
+
+    /**
+     * Constructs a new dictionary.
+     *
+     * @param capacity the capacity
+     */
+    public ConcurrentIntArrayDictionary(int capacity) {
+        super(0);
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.entries = new ConcurrentHashMap<Key, Entry>(Math.max(16, capacity));
+        this.chunks = createChunks(0);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            entries.clear();
+            chunks = createChunks(0);
+            nextIndex.set(0);
+        }
+    }
+
+    @Override
+    public void decrementRefCount(final int index) {
+        final Entry entry = getEntry(index);
+        if (entry.refCount.decrementAndGet() == 0) {
+            entries.remove(entry.key, entry);
+            chunks[index >>> CHUNK_BITS].set(index & (CHUNK_SIZE - 1), null);
+        }
+    }
+
+    @Override
+    public int[] get(final int index) {
+        return getEntry(index).key.array;
+    }
+
+    @Override
+    public int probe(final int[] array) {
+        final Key key = new Key(array);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+
+                // Reuse the entry, if it has not been removed concurrently
+                if (entry.incRefCount()) {
+                    return entry.index;
+                }
+                Entry created = createEntry(key);
+                if (entries.replace(key, entry, created)) {
+                    return created.index;
+                }
+                releaseEntry(created);
+            } else {
+                Entry created = createEntry(key);
+                if (entries.putIfAbsent(key, created) == null) {
+                    return created.index;
+                }
+                releaseEntry(created);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Creates an array of chunks of the given size
+     * @param size
+     * @return
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private AtomicReferenceArray<Entry>[] createChunks(int size) {
+        return new AtomicReferenceArray[size];
+    }
+
+    /**
+     * Creates a new entry and stores it in the according chunk
+     * @param key
+     * @return
+     */
+    private Entry createEntry(final Key key) {
+        final int index = nextIndex.getAndIncrement();
+        final int chunk = index >>> CHUNK_BITS;
+        AtomicReferenceArray<Entry>[] chunks = this.chunks;
+        if (chunk >= chunks.length || chunks[chunk] == null) {
+            synchronized (this) {
+                chunks = this.chunks;
+                if (chunk >= chunks.length) {
+                    chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length << 1));
+                }
+                if (chunks[chunk] == null) {
+                    chunks[chunk] = new AtomicReferenceArray<Entry>(CHUNK_SIZE);
+                }
+                this.chunks = chunks;
+            }
+        }
+        final Entry entry = new Entry(key, index);
+        chunks[chunk].set(index & (CHUNK_SIZE - 1), entry);
+        return entry;
+    }
+
+    /**
+     * Returns the entry with the given index
+     * @param index
+     * @return
+     */
+    private Entry getEntry(final int index) {
+        return chunks[index >>> CHUNK_BITS].get(index & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Releases an entry which has not been published
+     * @param entry
+     */
+    private void releaseEntry(final Entry entry) {
+        chunks[entry.index >>> CHUNK_BITS].set(entry.index & (CHUNK_SIZE - 1), null);
+    }
+}
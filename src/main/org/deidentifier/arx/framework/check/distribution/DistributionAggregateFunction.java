@@ -726,6 +726,30 @@ public abstract class DistributionAggregateFunction implements Serializable {
      */
     public abstract DistributionAggregateFunction clone();
     
+    /**
+     * Returns the data type, if initialized
+     * @return
+     */
+    public DataType<?> getDataType() {
+        return type;
+    }
+
+    /**
+     * Returns the dictionary, if initialized
+     * @return
+     */
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the hierarchy, if initialized
+     * @return
+     */
+    public int[][] getHierarchy() {
+        return hierarchy;
+    }
+
     /**
      * Returns the normalized mean squared error in [0,1], if supported, 0d otherwise
      * @param distribution
@@ -35,7 +35,7 @@ public class IntArrayDictionary {
      * @param key
      * @return
      */
-    private static final int hashCodeMURMUR(final int[] key) {
+    static final int hashCodeMURMUR(final int[] key) {
 
         int h1 = 0;
 
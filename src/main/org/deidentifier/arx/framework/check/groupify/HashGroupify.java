@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
@@ -34,12 +36,22 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
  * A hash groupify operator. It implements a hash table with chaining and keeps
- * track of additional properties per equivalence class
+ * track of additional properties per equivalence class. Alternatively, it implements
+ * a hash table with open addressing, which stores hash codes and references to entries
+ * in primitive arrays and which reuses entries after the operator has been cleared.
+ * If the values of all attributes can be encoded with at most 63 bits, keys are packed
+ * into longs, which are used for computing hash codes and for comparing keys.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
 public class HashGroupify {
+    
+    /** The accumulator of the utility measure, which has been updated while analyzing the classes. */
+    private HashGroupifyAccumulator      accumulator;
+    
+    /** The transformation for which the accumulator is valid, null if it is invalid. */
+    private Transformation               accumulatorTransformation;
         
     /** Criteria. */
     private final PrivacyCriterion[]     classBasedCriteria;
@@ -49,6 +61,21 @@ public class HashGroupify {
     
     /** The entry array. */
     private HashGroupifyEntry[]          hashTableBuckets;
+
+    /** Open addressing: the slots, containing the index of an entry plus one or zero, if empty. */
+    private int[]                        hashTableSlots;
+
+    /** Open addressing: the hash codes of the entries in the slots. */
+    private int[]                        hashTableSlotHashes;
+
+    /** Open addressing: all entries in insertion order, including entries that can be reused. */
+    private HashGroupifyEntry[]          hashTableEntries;
+
+    /** Use open addressing? */
+    private final boolean                openAddressing;
+
+    /** The number of bits used for each attribute when packing keys, null if keys are not packed. */
+    private final int[]                  keyBits;
     
     /** Current number of elements. */
     private int                          hashTableElementCount;
@@ -103,8 +130,16 @@ public class HashGroupify {
         // Set capacity
         capacity = HashTableUtil.calculateCapacity(capacity);
         this.hashTableElementCount = 0;
-        this.hashTableBuckets = new HashGroupifyEntry[capacity];
-        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        this.openAddressing = config.isGroupifyOpenAddressingEnabled();
+        if (openAddressing) {
+            this.hashTableSlots = new int[capacity];
+            this.hashTableSlotHashes = new int[capacity];
+            this.hashTableEntries = new HashGroupifyEntry[capacity];
+        } else {
+            this.hashTableBuckets = new HashGroupifyEntry[capacity];
+        }
+        this.keyBits = config.getGroupifyKeyBits();
+        this.hashTableThreshold = HashTableUtil.calculateThreshold(capacity, hashTableLoadFactor);
         
         // Set params
         this.currentNumOutliers = 0;
@@ -147,8 +182,9 @@ public class HashGroupify {
     public void addFromBuffer(int[] generalized, int[] other, int representative, int count, int pcount) {
         
         // Add
-        final int hash = HashTableUtil.hashcode(generalized);
-        final HashGroupifyEntry entry = addInternal(generalized, hash, representative, count, pcount);
+        final long packed = pack(generalized);
+        final int hash = hashcode(generalized, packed);
+        final HashGroupifyEntry entry = addInternal(generalized, hash, packed, representative, count, pcount);
         
         // Is a other attribute provided
         if (other != null) {
@@ -183,8 +219,9 @@ public class HashGroupify {
     public void addFromGroupify(int[] generalized, Distribution[] distributions, int representative, int count, int pcount) {
         
         // Add
-        final int hash = HashTableUtil.hashcode(generalized);
-        final HashGroupifyEntry entry = addInternal(generalized, hash, representative, count, pcount);
+        final long packed = pack(generalized);
+        final int hash = hashcode(generalized, packed);
+        final HashGroupifyEntry entry = addInternal(generalized, hash, packed, representative, count, pcount);
         
         // Is a distribution provided
         if (distributions != null) {
@@ -212,8 +249,9 @@ public class HashGroupify {
     public void addFromSnapshot(int[] generalized, int[][] elements, int[][] frequencies, int representative, int count, int pcount) {
         
         // Add
-        final int hash = HashTableUtil.hashcode(generalized);
-        final HashGroupifyEntry entry = addInternal(generalized, hash, representative, count, pcount);
+        final long packed = pack(generalized);
+        final int hash = hashcode(generalized, packed);
+        final HashGroupifyEntry entry = addInternal(generalized, hash, packed, representative, count, pcount);
         
         // Is a distribution provided
         if (elements != null) {
@@ -241,9 +279,27 @@ public class HashGroupify {
      * @return
      */
     public HashGroupifyEntry getEntry(int[] tuple) {
-        final int hash = HashTableUtil.hashcode(tuple);
+        final long packed = pack(tuple);
+        final int hash = hashcode(tuple, packed);
+        if (openAddressing) {
+            int slot = findSlot(tuple, hash, packed);
+            return hashTableSlots[slot] == 0 ? null : hashTableEntries[hashTableSlots[slot] - 1];
+        }
         int index = hash & (hashTableBuckets.length - 1);
-        return findEntry(tuple, index, hash);
+        return findEntry(tuple, index, hash, packed);
+    }
+    
+    /**
+     * Returns the accumulator, which has been created by the utility measure for the given
+     * transformation and which has been updated with all classes while analyzing the current state.
+     * Returns null, if no such accumulator is available, e.g. because the analysis terminated early
+     * or because suppression has been changed afterwards.
+     * 
+     * @param transformation
+     * @return
+     */
+    public HashGroupifyAccumulator getAccumulator(Transformation transformation) {
+        return transformation == accumulatorTransformation ? accumulator : null;
     }
     
     /**
@@ -305,12 +361,8 @@ public class HashGroupify {
         for (int row = 0; row < data.length; row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
                 final int[] key = data[row];
-                final int hash = HashTableUtil.hashcode(key);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !equalsIgnoringOutliers(key, m.key))) {
-                    m = m.next;
-                }
+                final long packed = pack(key);
+                HashGroupifyEntry m = findEntryIgnoringOutliers(key, hashcode(key, packed), packed);
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before microaggregation!"); }
                 int dimension = 0;
                 result.getArray()[row] = new int[num];
@@ -342,12 +394,8 @@ public class HashGroupify {
         for (int row = 0; row < data.length; row++) {
             final int[] key = data[row];
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = HashTableUtil.hashcode(key);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !equalsIgnoringOutliers(key, m.key))) {
-                    m = m.next;
-                }
+                final long packed = pack(key);
+                HashGroupifyEntry m = findEntryIgnoringOutliers(key, hashcode(key, packed), packed);
                 if (m == null) {
                     throw new RuntimeException("Invalid state! Groupify the data before marking outliers!");
                 }
@@ -366,6 +414,7 @@ public class HashGroupify {
      * @param force
      */
     public void stateAnalyze(Transformation transformation, boolean force) {
+        this.accumulatorTransformation = null;
         if (force) analyzeAll(transformation);
         else analyzeWithEarlyAbort(transformation);
     }
@@ -374,12 +423,17 @@ public class HashGroupify {
      * Clears all entries
      */
     public void stateClear() {
+        this.accumulatorTransformation = null;
         if (hashTableElementCount > 0) {
             this.hashTableElementCount = 0;
             this.currentNumOutliers = 0;
             this.hashTableFirstEntry = null;
             this.hashTableLastEntry = null;
-            HashTableUtil.nullifyArray(hashTableBuckets);
+            if (openAddressing) {
+                Arrays.fill(hashTableSlots, 0);
+            } else {
+                HashTableUtil.nullifyArray(hashTableBuckets);
+            }
         }
     }
     
@@ -387,6 +441,7 @@ public class HashGroupify {
      * This method will reset all flags that indicate that equivalence classes are suppressed.
      */
     public void stateResetSuppression() {
+        this.accumulatorTransformation = null;
         HashGroupifyEntry entry = hashTableFirstEntry;
         while (entry != null) {
             entry.isNotOutlier = true;
@@ -400,22 +455,37 @@ public class HashGroupify {
      *
      * @param generalized the key
      * @param hash the hash
+     * @param packed the packed key
      * @param representative
      * @param count
      * @param pcount
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry addInternal(final int[] generalized, final int hash, final int representative, int count, final int pcount) {
+    private HashGroupifyEntry addInternal(final int[] generalized, final int hash, final long packed, final int representative, int count, final int pcount) {
         
         // Find or create entry
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry entry = findEntry(generalized, index, hash);
-        if (entry == null) {
-            if (++hashTableElementCount > hashTableThreshold) {
-                rehash();
-                index = hash & (hashTableBuckets.length - 1);
+        HashGroupifyEntry entry;
+        if (openAddressing) {
+            int slot = findSlot(generalized, hash, packed);
+            if (hashTableSlots[slot] != 0) {
+                entry = hashTableEntries[hashTableSlots[slot] - 1];
+            } else {
+                if (++hashTableElementCount > hashTableThreshold) {
+                    rehash();
+                    slot = findSlot(generalized, hash, packed);
+                }
+                entry = createEntry(generalized, slot, hash, packed, representative);
+            }
+        } else {
+            int index = hash & (hashTableBuckets.length - 1);
+            entry = findEntry(generalized, index, hash, packed);
+            if (entry == null) {
+                if (++hashTableElementCount > hashTableThreshold) {
+                    rehash();
+                    index = hash & (hashTableBuckets.length - 1);
+                }
+                entry = createEntry(generalized, index, hash, packed, representative);
             }
-            entry = createEntry(generalized, index, hash, representative);
         }
         
         // If we enforce d-presence and the tuple is not contained in the research subset: set its count to zero
@@ -480,6 +550,7 @@ public class HashGroupify {
         // Iterate over all classes
         boolean dpresent = true;
         currentNumOutliers = 0;
+        HashGroupifyAccumulator accumulator = createAccumulator(transformation);
         HashGroupifyEntry entry = hashTableFirstEntry;
         while (entry != null) {
             
@@ -504,10 +575,16 @@ public class HashGroupify {
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
             
+            // Update utility
+            if (accumulator != null) {
+                accumulator.add(entry);
+            }
+            
             // Next class
             entry = entry.nextOrdered;
         }
         
+        this.setAccumulator(accumulator, transformation);
         this.analyzeSampleBasedCriteria(transformation, false);
         this.privacyModelFulfilled = (currentNumOutliers <= suppressionLimit) && dpresent;
     }
@@ -569,6 +646,7 @@ public class HashGroupify {
         
         // Iterate over all classes
         currentNumOutliers = 0;
+        HashGroupifyAccumulator accumulator = createAccumulator(transformation);
         HashGroupifyEntry entry = hashTableFirstEntry;
         while (entry != null) {
             
@@ -603,14 +681,30 @@ public class HashGroupify {
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
             
+            // Update utility
+            if (accumulator != null) {
+                accumulator.add(entry);
+            }
+            
             // Next class
             entry = entry.nextOrdered;
         }
         
+        this.setAccumulator(accumulator, transformation);
         this.analyzeSampleBasedCriteria(transformation, true);
         this.privacyModelFulfilled = (currentNumOutliers <= suppressionLimit);
     }
     
+    /**
+     * Creates an accumulator for the utility measure. Returns null, if sample-based criteria are
+     * configured, as they may change suppression after the classes have been analyzed.
+     * @param transformation
+     * @return
+     */
+    private HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        return sampleBasedCriteria.length == 0 ? utilityMeasure.createAccumulator(transformation) : null;
+    }
+    
     /**
      * Creates a new entry.
      * 
@@ -620,15 +714,37 @@ public class HashGroupify {
      *            the index
      * @param hash
      *            the hash
+     * @param packed
+     *            the packed key
      * @param line
      *            the line
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry createEntry(final int[] key, final int index, final int hash, final int line) {
-        final HashGroupifyEntry entry = new HashGroupifyEntry(key, hash);
-        entry.next = hashTableBuckets[index];
+    private HashGroupifyEntry createEntry(final int[] key, final int index, final int hash, final long packed, final int line) {
+        final HashGroupifyEntry entry;
+        if (openAddressing) {
+            
+            // Reuse or create entry. The element count has already been incremented.
+            final int position = hashTableElementCount - 1;
+            if (position == hashTableEntries.length) {
+                hashTableEntries = Arrays.copyOf(hashTableEntries, hashTableEntries.length << 1);
+            }
+            if (hashTableEntries[position] == null) {
+                entry = new HashGroupifyEntry(key, hash);
+                hashTableEntries[position] = entry;
+            } else {
+                entry = hashTableEntries[position];
+                entry.reset(key, hash, packed);
+            }
+            hashTableSlots[index] = position + 1;
+            hashTableSlotHashes[index] = hash;
+        } else {
+            entry = new HashGroupifyEntry(key, hash);
+            entry.next = hashTableBuckets[index];
+            hashTableBuckets[index] = entry;
+        }
         entry.representative = line;
-        hashTableBuckets[index] = entry;
+        entry.packedKey = packed;
         if (hashTableFirstEntry == null) {
             hashTableFirstEntry = entry;
             hashTableLastEntry = entry;
@@ -639,14 +755,32 @@ public class HashGroupify {
         return entry;
     }
     
+    /**
+     * Returns whether the given key equals the key of the given entry. Compares
+     * packed keys, if available.
+     *
+     * @param key
+     * @param packed
+     * @param entry
+     * @return
+     */
+    private boolean equals(final int[] key, final long packed, final HashGroupifyEntry entry) {
+        return packed != -1L ? packed == entry.packedKey : HashTableUtil.equals(key, entry.key);
+    }
+
     /**
      * TODO: Ugly!.
      *
      * @param a
-     * @param a2
+     * @param packed
+     * @param entry
      * @return
      */
-    private boolean equalsIgnoringOutliers(final int[] a, final int[] a2) {
+    private boolean equalsIgnoringOutliers(final int[] a, final long packed, final HashGroupifyEntry entry) {
+        if (packed != -1L) {
+            return packed == entry.packedKey;
+        }
+        final int[] a2 = entry.key;
         for (int i = 0; i < a.length; i++) {
             if (a[i] != (a2[i] & Data.REMOVE_OUTLIER_MASK)) {
                 return false;
@@ -664,16 +798,79 @@ public class HashGroupify {
      *            the index
      * @param keyHash
      *            the key hash
+     * @param packed
+     *            the packed key
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry findEntry(final int[] key, final int index, final int keyHash) {
+    private HashGroupifyEntry findEntry(final int[] key, final int index, final int keyHash, final long packed) {
         HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != keyHash) || !HashTableUtil.equals(key, m.key))) {
+        while ((m != null) && ((m.hashcode != keyHash) || !equals(key, packed, m))) {
             m = m.next;
         }
         return m;
     }
         
+    /**
+     * Returns the according entry, ignoring outlier flags in the keys.
+     *
+     * @param key
+     * @param keyHash
+     * @param packed
+     * @return the hash groupify entry
+     */
+    private HashGroupifyEntry findEntryIgnoringOutliers(final int[] key, final int keyHash, final long packed) {
+        if (openAddressing) {
+            final int mask = hashTableSlots.length - 1;
+            int slot = HashTableUtil.mix(keyHash) & mask;
+            while (hashTableSlots[slot] != 0) {
+                if (hashTableSlotHashes[slot] == keyHash) {
+                    final HashGroupifyEntry m = hashTableEntries[hashTableSlots[slot] - 1];
+                    if (equalsIgnoringOutliers(key, packed, m)) {
+                        return m;
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        } else {
+            HashGroupifyEntry m = hashTableBuckets[keyHash & (hashTableBuckets.length - 1)];
+            while ((m != null) && ((m.hashcode != keyHash) || !equalsIgnoringOutliers(key, packed, m))) {
+                m = m.next;
+            }
+            return m;
+        }
+    }
+
+    /**
+     * Open addressing: returns the slot containing the given key or the empty
+     * slot at which the key can be inserted.
+     *
+     * @param key
+     * @param keyHash
+     * @param packed
+     * @return
+     */
+    private int findSlot(final int[] key, final int keyHash, final long packed) {
+        final int mask = hashTableSlots.length - 1;
+        int slot = HashTableUtil.mix(keyHash) & mask;
+        while (hashTableSlots[slot] != 0 &&
+               (hashTableSlotHashes[slot] != keyHash || !equals(key, packed, hashTableEntries[hashTableSlots[slot] - 1]))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the hash code of the given key.
+     *
+     * @param key
+     * @param packed
+     * @return
+     */
+    private int hashcode(final int[] key, final long packed) {
+        return packed != -1L ? HashTableUtil.mix((int) (packed ^ (packed >>> 32))) : HashTableUtil.hashcode(key);
+    }
+
     /**
      * Checks whether the given entry is anonymous.
      *
@@ -699,11 +896,58 @@ public class HashGroupify {
         return -1;
     }
 
+    /**
+     * Packs the given key into a long, using the number of bits required for the
+     * dictionary of each attribute. Returns -1, if keys are not packed or if the key
+     * contains a value which cannot be encoded, e.g. because it is marked as an outlier.
+     *
+     * @param key
+     * @return
+     */
+    private long pack(final int[] key) {
+        if (keyBits == null || key.length != keyBits.length) {
+            return -1L;
+        }
+        long result = 0L;
+        for (int i = 0; i < key.length; i++) {
+            final int value = key[i];
+            final int bits = keyBits[i];
+            if ((value >>> bits) != 0) {
+                return -1L;
+            }
+            result = (result << bits) | value;
+        }
+        return result;
+    }
+
     /**
      * Rehashes this operator.
      */
     private void rehash() {
         
+        // Open addressing
+        if (openAddressing) {
+            final int length = HashTableUtil.calculateCapacity(hashTableSlots.length << 1);
+            final int mask = length - 1;
+            final int[] slots = new int[length];
+            final int[] hashes = new int[length];
+            int position = 0;
+            HashGroupifyEntry entry = hashTableFirstEntry;
+            while (entry != null) {
+                int slot = HashTableUtil.mix(entry.hashcode) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = ++position;
+                hashes[slot] = entry.hashcode;
+                entry = entry.nextOrdered;
+            }
+            hashTableSlots = slots;
+            hashTableSlotHashes = hashes;
+            hashTableThreshold = HashTableUtil.calculateThreshold(length, hashTableLoadFactor);
+            return;
+        }
+        
         final int length = HashTableUtil.calculateCapacity((hashTableBuckets.length == 0 ? 1 : hashTableBuckets.length << 1));
         final HashGroupifyEntry[] newData = new HashGroupifyEntry[length];
         HashGroupifyEntry entry = hashTableFirstEntry;
@@ -716,4 +960,16 @@ public class HashGroupify {
         hashTableBuckets = newData;
         hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
     }
+
+    /**
+     * Stores the accumulator, which has been updated with all classes.
+     * @param accumulator
+     * @param transformation
+     */
+    private void setAccumulator(HashGroupifyAccumulator accumulator, Transformation transformation) {
+        if (accumulator != null) {
+            this.accumulator = accumulator;
+            this.accumulatorTransformation = transformation;
+        }
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+/**
+ * An accumulator for partial sums of a utility measure, which is updated with each equivalence class,
+ * while the groupify operator analyzes the classes. This allows utility measures to be evaluated
+ * without an additional pass over all classes.
+ * 
+ * @author Fabian Prasser
+ */
+public interface HashGroupifyAccumulator {
+
+    /**
+     * Adds the given class. Called once for each class, after it has been determined whether
+     * the class is an outlier.
+     * 
+     * @param entry
+     */
+    public void add(HashGroupifyEntry entry);
+}
@@ -34,10 +34,13 @@ public class HashGroupifyEntry {
     public int               pcount       = 0;
 
     /** The hashcode of this class. */
-    public final int         hashcode;
+    public int               hashcode;
 
     /** The key of this class. */
-    public final int[]       key;
+    public int[]             key;
+
+    /** The key of this class packed into a long, or -1 if the key cannot be packed. Speeds up hashing and comparisons at the cost of 8 bytes per class. */
+    public long              packedKey    = -1L;
 
     /** The next element in this bucket. */
     public HashGroupifyEntry next         = null;
@@ -66,4 +69,27 @@ public class HashGroupifyEntry {
         hashcode = hash;
         this.key = key;
     }
+
+    /**
+     * Resets this entry, which allows to reuse it for another class.
+     *
+     * @param key
+     *            the key
+     * @param hash
+     *            the hash
+     * @param packedKey
+     *            the packed key
+     */
+    void reset(final int[] key, final int hash, final long packedKey) {
+        this.hashcode = hash;
+        this.key = key;
+        this.packedKey = packedKey;
+        this.count = 0;
+        this.pcount = 0;
+        this.next = null;
+        this.nextOrdered = null;
+        this.representative = -1;
+        this.isNotOutlier = false;
+        this.distributions = null;
+    }
 }
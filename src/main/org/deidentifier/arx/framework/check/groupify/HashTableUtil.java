@@ -206,6 +206,22 @@ public class HashTableUtil {
         return result;
     }
     
+    /**
+     * Scrambles the bits of a hash code, which is required when addressing
+     * slots with linear probing.
+     *
+     * @param hash
+     * @return
+     */
+    public static final int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+    
     /**
      * Returns the same result as Arrays.fill(array, null)
      * 
@@ -17,8 +17,10 @@
 
 package org.deidentifier.arx.framework.check.history;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
@@ -31,7 +33,14 @@ import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
 /**
- * The Class History.
+ * The Class History. Snapshots are kept in memory and evicted according to an MRU policy.
+ * Snapshots are stored in a compressed form, which is created by a {@link SnapshotCodec},
+ * and decoded when they are retrieved. The number of snapshots kept in memory is limited,
+ * or, if a size in bytes has been set, the size of their encoded form. If a size for the
+ * second tier has been set, evicted snapshots are moved into a store which is backed by a
+ * memory-mapped file. Snapshots which are retrieved from this store are moved back into memory. Snapshots from both tiers are indexed by the generalization levels of their
+ * transformations, which allows to find the smallest suitable snapshot without visiting snapshots
+ * of transformations which are not predecessors.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -50,6 +59,9 @@ public class History {
     /** The actual buffer. */
     private MRUCache<MRUCacheEntryMetadata> cache                         = null;
 
+    /** The codec for snapshots. */
+    private final SnapshotCodec             codec;
+
     /** Current configuration. */
     private final ARXConfigurationInternal  config;
 
@@ -59,8 +71,17 @@ public class History {
     /** The dictionary for values of the distributions. */
     private final IntArrayDictionary        dictionarySensValue;
 
-    /** A map from nodes to snapshots. */
-    private HashMap<Long, int[]>            nodeToSnapshot                = null;
+    /** The maximal size of the encoded snapshots in memory in bytes, 0 if it is not limited. */
+    private long                            memorySize                    = 0L;
+
+    /** The size of the encoded snapshots in memory in bytes. */
+    private long                            memoryUsed                    = 0L;
+
+    /** A map from nodes to encoded snapshots. */
+    private HashMap<Long, byte[]>           nodeToSnapshot                = null;
+
+    /** The snapshots from both tiers, indexed by their transformations. */
+    private final SnapshotIndex             index;
 
     /** The current requirements. */
     private final int                       requirements;
@@ -68,7 +89,7 @@ public class History {
     /** The node backing the last returned snapshot. */
     private MRUCacheEntryMetadata           resultMetadata;
 
-    /** Maximal number of entries. */
+    /** Maximal number of entries, if the size in bytes is not limited. */
     private int                             size;
 
     /** The snapshotSizeDataset for the size of entries. */
@@ -80,6 +101,9 @@ public class History {
     /** The solution space */
     private final SolutionSpace             solutionSpace;
 
+    /** The second tier, if any. */
+    private SnapshotStore                   store                         = null;
+
     /** Store the results of all types of transformations. */
     private final DependentAction STORAGE_TRIGGER_ALL = new DependentAction(){
         @Override
@@ -123,7 +147,7 @@ public class History {
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         this.cache = new MRUCache<MRUCacheEntryMetadata>(size);
-        this.nodeToSnapshot = new HashMap<Long, int[]>(size);
+        this.nodeToSnapshot = new HashMap<Long, byte[]>(size);
         this.size = size;
         this.dictionarySensFreq = dictionarySensFreq;
         this.dictionarySensValue = dictionarySensValue;
@@ -131,6 +155,8 @@ public class History {
         this.requirements = config.getRequirements();
         this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
         this.solutionSpace = solutionSpace;
+        this.index = new SnapshotIndex(solutionSpace.getTop().getGeneralization());
+        this.codec = new SnapshotCodec(config.getSnapshotLength());
     }
     
     /**
@@ -141,30 +167,25 @@ public class History {
      */
     public int[] get(final int[] transformation) {
 
-        // Init
+        // Search for the smallest snapshot of a predecessor
         int[] resultSnapshot = null;
-        MRUCacheEntryMetadata resultMetadata = null;
-        int level = solutionSpace.getLevel(transformation);
-
-        // Search
-        MRUCacheEntry<MRUCacheEntryMetadata> entry = cache.getHead();
-        while (entry != null) {
-            MRUCacheEntryMetadata currentMetadata = entry.data;
-            if (currentMetadata.level < level) {
-                final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
-                    if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
-                        resultMetadata = currentMetadata;
-                        resultSnapshot = currentSnapshot;
-                    }
-                }
-            }
-            entry = entry.next;
-        }
+        MRUCacheEntryMetadata resultMetadata = index.get(transformation);
 
         // Manager
         if (resultMetadata != null) {
-            cache.touch(resultMetadata);
+            byte[] encoded = nodeToSnapshot.get(resultMetadata.id);
+            if (encoded != null) {
+                cache.touch(resultMetadata);
+            } else {
+                
+                // Move snapshot from second tier into memory
+                encoded = store.remove(resultMetadata.id);
+                spillHistoryEntries(encoded.length);
+                nodeToSnapshot.put(resultMetadata.id, encoded);
+                memoryUsed += encoded.length;
+                cache.append(resultMetadata);
+            }
+            resultSnapshot = codec.decode(encoded, resultMetadata.length);
         }
         this.resultMetadata = resultMetadata;
 
@@ -216,15 +237,58 @@ public class History {
      * Clears the history.
      */
     public void reset() {
+        if (this.store != null) {
+            this.store.close();
+        }
         this.cache.clear();
         this.nodeToSnapshot.clear();
+        this.memoryUsed = 0L;
+        this.index.clear();
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
     }
 
     /**
-     * Sets the size of this history.
+     * Sets the size of the second tier in bytes. The second tier is disabled, if the size is 0.
+     * The size of a single file is limited to Integer.MAX_VALUE bytes.
+     *
+     * @param bytes
+     */
+    public void setDiskSize(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
+        }
+        if (this.store != null) {
+            discardStoredEntries(new ArrayList<SnapshotStore.Entry>(this.store.getEntries()));
+            this.store.close();
+        }
+        this.store = bytes == 0 ? null : new SnapshotStore(bytes, 
+                                                           (requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0,
+                                                           new SnapshotStore.EvictionListener() {
+            @Override
+            public void evicted(MRUCacheEntryMetadata metadata, byte[] snapshot) {
+                index.remove(metadata);
+                releaseSnapshot(metadata, snapshot);
+            }
+        });
+    }
+
+    /**
+     * Sets the maximal size of the encoded snapshots in memory in bytes. If the size is 0,
+     * the number of snapshots is limited instead, as set with {@link #setSize(int)}.
+     *
+     * @param bytes
+     */
+    public void setMemorySize(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
+        }
+        this.memorySize = bytes;
+    }
+
+    /**
+     * Sets the maximal number of snapshots in memory. The history is disabled, if the size is 0.
      *
      * @param size
      */
@@ -284,18 +348,23 @@ public class History {
         // Clear the cache
         cleanUpHistory();
 
-        // Perform LRU eviction, if still too large
-        if (cache.size() >= size) {
-            removeHistoryEntry(cache.removeHead());
-        }
-        
         // Create the snapshot
         final int[] data = createSnapshot(groupify);
+        final byte[] encoded = codec.encode(data);
+        if (memorySize != 0 && encoded.length > memorySize) {
+            releaseSnapshot(data);
+            return false;
+        }
+        final MRUCacheEntryMetadata metadata = new MRUCacheEntryMetadata(transformation, data.length);
 
+        // Perform LRU eviction, if still too large
+        spillHistoryEntries(encoded.length);
 
         // assign snapshot and keep reference for cache
-        nodeToSnapshot.put(transformation.getIdentifier(), data);
-        cache.append(new MRUCacheEntryMetadata(transformation));
+        nodeToSnapshot.put(transformation.getIdentifier(), encoded);
+        memoryUsed += encoded.length;
+        cache.append(metadata);
+        index.add(metadata);
 
         return true;
     }
@@ -313,6 +382,17 @@ public class History {
                 removeHistoryEntry(node);
             }
         }
+        
+        // Clean up second tier
+        if (store != null) {
+            List<SnapshotStore.Entry> pruned = new ArrayList<SnapshotStore.Entry>();
+            for (SnapshotStore.Entry entry : store.getEntries()) {
+                if (solutionSpace.hasProperty(entry.metadata.transformation, solutionSpace.getPropertySuccessorsPruned())) {
+                    pruned.add(entry);
+                }
+            }
+            discardStoredEntries(pruned);
+        }
     }
     
     /**
@@ -368,13 +448,39 @@ public class History {
     }
 
     /**
-     * Removes a snapshot.
+     * Removes the given entries from the second tier.
+     *
+     * @param entries
+     */
+    private final void discardStoredEntries(final List<SnapshotStore.Entry> entries) {
+        for (SnapshotStore.Entry entry : entries) {
+            index.remove(entry.metadata);
+            releaseSnapshot(entry.metadata, store.discard(entry.metadata.id));
+        }
+    }
+
+    /**
+     * Releases the references of an encoded snapshot into the dictionaries.
      *
      * @param metadata
+     * @param snapshot
      */
-    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
-        final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+    private final void releaseSnapshot(final MRUCacheEntryMetadata metadata, final byte[] snapshot) {
+        if (snapshot != null && (requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+            releaseSnapshot(codec.decode(snapshot, metadata.length));
+        }
+    }
 
+    /**
+     * Releases the references of a snapshot into the dictionaries.
+     *
+     * @param snapshot
+     */
+    private final void releaseSnapshot(final int[] snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
             for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
@@ -395,4 +501,47 @@ public class History {
             }
         }
     }
+
+    /**
+     * Removes a snapshot.
+     *
+     * @param metadata
+     */
+    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        index.remove(metadata);
+        final byte[] snapshot = nodeToSnapshot.remove(metadata.id);
+        if (snapshot != null) {
+            memoryUsed -= snapshot.length;
+        }
+        releaseSnapshot(metadata, snapshot);
+    }
+
+    /**
+     * Performs LRU eviction, until a snapshot of the given size in bytes can be stored in memory.
+     *
+     * @param bytes
+     */
+    private final void spillHistoryEntries(final int bytes) {
+        while (cache.size() > 0 && (memorySize == 0 ? cache.size() >= size : memoryUsed + bytes > memorySize)) {
+            spillHistoryEntry(cache.removeHead());
+        }
+    }
+
+    /**
+     * Removes a snapshot from memory and moves it into the second tier, if any.
+     *
+     * @param metadata
+     */
+    private final void spillHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        if (store == null) {
+            removeHistoryEntry(metadata);
+            return;
+        }
+        final byte[] snapshot = nodeToSnapshot.remove(metadata.id);
+        memoryUsed -= snapshot.length;
+        if (!store.put(metadata, snapshot)) {
+            index.remove(metadata);
+            releaseSnapshot(metadata, snapshot);
+        }
+    }
 }
@@ -31,14 +31,18 @@ public class MRUCacheEntryMetadata {
     public final int   level;
     /** Id */
     public final long  id;
+    /** Length of the snapshot */
+    public final int   length;
 
     /**
      * 
      * @param transformation
+     * @param length
      */
-    public MRUCacheEntryMetadata(Transformation transformation) {
+    public MRUCacheEntryMetadata(Transformation transformation, int length) {
         this.transformation = transformation.getGeneralization().clone();
         this.level = transformation.getLevel();
         this.id = transformation.getIdentifier();
+        this.length = length;
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.util.Arrays;
+
+/**
+ * Encodes snapshots in a compressed form. Each value is encoded as a zig-zag varint.
+ * The first value of each class, which is the index of its representative, is encoded
+ * as the difference to the representative of the previous class. As representatives are
+ * ascending row indices and counts are small, most values require a single byte.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotCodec {
+
+    /** The number of values per class. */
+    private final int stride;
+
+    /** Buffer for encoding snapshots. */
+    private byte[]    buffer = new byte[0];
+
+    /**
+     * Creates a new instance
+     *
+     * @param stride The number of values per class in a snapshot
+     */
+    public SnapshotCodec(final int stride) {
+        this.stride = stride;
+    }
+
+    /**
+     * Decodes the given snapshot.
+     *
+     * @param snapshot The encoded snapshot
+     * @param length The number of values of the snapshot
+     * @return
+     */
+    public int[] decode(final byte[] snapshot, final int length) {
+        final int[] result = new int[length];
+        int offset = 0;
+        int previous = 0;
+        for (int i = 0; i < result.length; i += stride) {
+            for (int j = i; j < i + stride; j++) {
+                int zigzag = 0;
+                int shift = 0;
+                byte current;
+                do {
+                    current = snapshot[offset++];
+                    zigzag |= (current & 0x7F) << shift;
+                    shift += 7;
+                } while (current < 0);
+                int value = (zigzag >>> 1) ^ -(zigzag & 1);
+                if (j == i) {
+                    value += previous;
+                    previous = value;
+                }
+                result[j] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the given snapshot.
+     *
+     * @param snapshot
+     * @return The encoded snapshot
+     */
+    public byte[] encode(final int[] snapshot) {
+
+        // Each value requires at most five bytes
+        if (buffer.length < snapshot.length * 5) {
+            buffer = new byte[snapshot.length * 5];
+        }
+
+        // Encode
+        int size = 0;
+        int previous = 0;
+        for (int i = 0; i < snapshot.length; i += stride) {
+            for (int j = i; j < i + stride; j++) {
+                int value = snapshot[j];
+                if (j == i) {
+                    value -= previous;
+                    previous = snapshot[j];
+                }
+                int zigzag = (value << 1) ^ (value >> 31);
+                while ((zigzag & ~0x7F) != 0) {
+                    buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                    zigzag >>>= 7;
+                }
+                buffer[size++] = (byte) zigzag;
+            }
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+}
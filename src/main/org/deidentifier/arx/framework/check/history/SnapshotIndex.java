@@ -0,0 +1,202 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.util.Arrays;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
+/**
+ * An index of snapshots by the generalization levels of their transformations. For each
+ * attribute and each level, a bitset marks the snapshots whose level for the attribute
+ * is lower than or equal to the given level. The snapshots from which a transformation
+ * can be computed are determined by intersecting one bitset per attribute. Snapshots of
+ * transformations which are not predecessors of the transformation are never visited.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotIndex {
+
+    /** Bitsets per attribute and level */
+    private long[][][]              bitsets;
+
+    /** The entries, indexed by their slot */
+    private MRUCacheEntryMetadata[] entries;
+
+    /** Free slots */
+    private int[]                   free;
+
+    /** Number of free slots */
+    private int                     freeSize;
+
+    /** The highest slot which has been used so far, plus one */
+    private int                     limit;
+
+    /** Maps identifiers of transformations to slots */
+    private final LongIntOpenHashMap slots = new LongIntOpenHashMap();
+
+    /**
+     * Creates a new index
+     * @param maxLevels The maximal generalization level of each attribute
+     */
+    public SnapshotIndex(int[] maxLevels) {
+        this.bitsets = new long[maxLevels.length][][];
+        for (int column = 0; column < maxLevels.length; column++) {
+            this.bitsets[column] = new long[maxLevels[column] + 1][1];
+        }
+        this.entries = new MRUCacheEntryMetadata[64];
+        this.free = new int[64];
+    }
+
+    /**
+     * Adds an entry. Adding an entry which is already contained has no effect.
+     * @param metadata
+     */
+    public void add(MRUCacheEntryMetadata metadata) {
+
+        // Check
+        if (slots.containsKey(metadata.id)) {
+            return;
+        }
+
+        // Find slot
+        int slot = freeSize > 0 ? free[--freeSize] : limit++;
+        if (slot == entries.length) {
+            grow();
+        }
+
+        // Store
+        entries[slot] = metadata;
+        slots.put(metadata.id, slot);
+        int word = slot >>> 6;
+        long mask = 1L << slot;
+        for (int column = 0; column < bitsets.length; column++) {
+            long[][] levels = bitsets[column];
+            for (int level = metadata.transformation[column]; level < levels.length; level++) {
+                levels[level][word] |= mask;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        for (long[][] levels : bitsets) {
+            for (long[] words : levels) {
+                Arrays.fill(words, 0L);
+            }
+        }
+        Arrays.fill(entries, null);
+        slots.clear();
+        freeSize = 0;
+        limit = 0;
+    }
+
+    /**
+     * Returns the smallest snapshot from which the given transformation can be computed,
+     * excluding the snapshot of the transformation itself. Ties are broken by the identifiers
+     * of the transformations. Returns <code>null</code> if there is no such snapshot.
+     *
+     * @param transformation
+     * @return
+     */
+    public MRUCacheEntryMetadata get(int[] transformation) {
+
+        MRUCacheEntryMetadata result = null;
+        int words = (limit + 63) >>> 6;
+        for (int word = 0; word < words; word++) {
+
+            // Intersect
+            long bits = -1L;
+            for (int column = 0; column < bitsets.length && bits != 0L; column++) {
+                bits &= bitsets[column][transformation[column]][word];
+            }
+
+            // Visit predecessors
+            while (bits != 0L) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1L;
+                MRUCacheEntryMetadata candidate = entries[slot];
+                if (!Arrays.equals(candidate.transformation, transformation) &&
+                    (result == null || compare(candidate, result) < 0)) {
+                    result = candidate;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes an entry. Removing an entry which is not contained has no effect.
+     * @param metadata
+     */
+    public void remove(MRUCacheEntryMetadata metadata) {
+
+        // Check
+        if (!slots.containsKey(metadata.id)) {
+            return;
+        }
+
+        // Remove
+        int slot = slots.remove(metadata.id);
+        int word = slot >>> 6;
+        long mask = ~(1L << slot);
+        for (int column = 0; column < bitsets.length; column++) {
+            long[][] levels = bitsets[column];
+            for (int level = metadata.transformation[column]; level < levels.length; level++) {
+                levels[level][word] &= mask;
+            }
+        }
+        entries[slot] = null;
+        free[freeSize++] = slot;
+    }
+
+    /**
+     * Returns the number of entries
+     * @return
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Compares entries by the size of their snapshots and by their identifiers
+     * @param o1
+     * @param o2
+     * @return
+     */
+    private int compare(MRUCacheEntryMetadata o1, MRUCacheEntryMetadata o2) {
+        int cmp = Integer.compare(o1.length, o2.length);
+        return cmp != 0 ? cmp : Long.compare(o1.id, o2.id);
+    }
+
+    /**
+     * Doubles the capacity
+     */
+    private void grow() {
+        int capacity = entries.length * 2;
+        entries = Arrays.copyOf(entries, capacity);
+        free = Arrays.copyOf(free, capacity);
+        for (long[][] levels : bitsets) {
+            for (int level = 0; level < levels.length; level++) {
+                levels[level] = Arrays.copyOf(levels[level], capacity >>> 6);
+            }
+        }
+    }
+}
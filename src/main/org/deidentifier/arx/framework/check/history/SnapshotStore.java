@@ -0,0 +1,258 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A second-tier store for snapshots, which is backed by a memory-mapped temporary file.
+ * Snapshots are written into the file sequentially, like into a ring buffer. Snapshots
+ * which are overwritten are evicted from the store. The file is created lazily and
+ * deleted when the store is closed. Snapshots are stored in the form in which they have
+ * been encoded by a {@link SnapshotCodec}.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotStore {
+
+    /**
+     * A listener which is notified about evicted snapshots
+     * @author Fabian Prasser
+     */
+    public static interface EvictionListener {
+
+        /**
+         * Called when a snapshot has been evicted from the store
+         * @param metadata
+         * @param snapshot The encoded content of the snapshot, if needed, null otherwise
+         */
+        public void evicted(MRUCacheEntryMetadata metadata, byte[] snapshot);
+    }
+
+    /**
+     * An entry in the store
+     * @author Fabian Prasser
+     */
+    public static class Entry {
+
+        /** Metadata */
+        public final MRUCacheEntryMetadata metadata;
+        /** Offset in bytes */
+        private final int                  offset;
+        /** Size in bytes */
+        private final int                  size;
+
+        /**
+         * Creates a new entry
+         * @param metadata
+         * @param offset
+         * @param size
+         */
+        private Entry(MRUCacheEntryMetadata metadata, int offset, int size) {
+            this.metadata = metadata;
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+
+    /** The capacity in bytes. */
+    private final int                     capacity;
+
+    /** Whether the content of evicted snapshots is needed. */
+    private final boolean                 readEvicted;
+
+    /** The listener. */
+    private final EvictionListener        listener;
+
+    /** The entries, in order of insertion. */
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<Long, Entry>();
+
+    /** The file, if opened. */
+    private File                          file;
+
+    /** The random access file, if opened. */
+    private RandomAccessFile              raf;
+
+    /** The mapped buffer, if opened. */
+    private ByteBuffer                    buffer;
+
+    /** The current write position. */
+    private int                           position;
+
+    /**
+     * Creates a new store. The size is limited to Integer.MAX_VALUE bytes.
+     *
+     * @param bytes The size of the store in bytes
+     * @param readEvicted Whether the content of evicted snapshots is needed
+     * @param listener The listener which is notified about evicted snapshots
+     */
+    public SnapshotStore(final long bytes, final boolean readEvicted, final EvictionListener listener) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        this.capacity = (int) Math.min(bytes, Integer.MAX_VALUE);
+        this.readEvicted = readEvicted;
+        this.listener = listener;
+    }
+
+    /**
+     * Removes all snapshots, closes and deletes the file.
+     */
+    public void close() {
+        this.entries.clear();
+        this.position = 0;
+        this.buffer = null;
+        if (this.raf != null) {
+            try {
+                this.raf.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            this.raf = null;
+        }
+        if (this.file != null) {
+            this.file.delete();
+            this.file = null;
+        }
+    }
+
+    /**
+     * Removes the snapshot with the given id. Returns its encoded content, if the content of
+     * evicted snapshots is needed, null otherwise.
+     *
+     * @param id
+     * @return
+     */
+    public byte[] discard(final long id) {
+        final Entry entry = entries.remove(id);
+        return entry != null && readEvicted ? read(entry) : null;
+    }
+
+    /**
+     * Returns all entries
+     * @return
+     */
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    /**
+     * Stores the given encoded snapshot. Snapshots which are overwritten are evicted and
+     * reported to the listener. Returns false, if the snapshot is too large to be stored.
+     *
+     * @param metadata
+     * @param snapshot
+     * @return
+     */
+    public boolean put(final MRUCacheEntryMetadata metadata, final byte[] snapshot) {
+
+        // Check
+        final int size = snapshot.length;
+        if (size > capacity) {
+            return false;
+        }
+        open();
+
+        // Wrap around
+        if (position + size > capacity) {
+            position = 0;
+        }
+
+        // Evict all snapshots which will be overwritten
+        final List<Entry> evicted = new ArrayList<Entry>();
+        final int end = position + size;
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.offset < end && position < entry.offset + entry.size) {
+                evicted.add(entry);
+                iterator.remove();
+            }
+        }
+        for (Entry entry : evicted) {
+            listener.evicted(entry.metadata, readEvicted ? read(entry) : null);
+        }
+
+        // Write
+        buffer.position(position);
+        buffer.put(snapshot);
+        entries.put(metadata.id, new Entry(metadata, position, size));
+        position = end;
+        return true;
+    }
+
+    /**
+     * Removes the snapshot with the given id and returns its encoded content.
+     *
+     * @param id
+     * @return
+     */
+    public byte[] remove(final long id) {
+        final Entry entry = entries.remove(id);
+        return entry == null ? null : read(entry);
+    }
+
+    /**
+     * Returns the number of snapshots in the store
+     * @return
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Creates and maps the file, if not already done.
+     */
+    private void open() {
+        if (buffer != null) {
+            return;
+        }
+        try {
+            file = File.createTempFile("arx-history-", ".tmp");
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+            raf.setLength(capacity);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Cannot create file for storing snapshots", e);
+        }
+    }
+
+    /**
+     * Reads the encoded content of the given entry.
+     *
+     * @param entry
+     * @return
+     */
+    private byte[] read(final Entry entry) {
+        final byte[] result = new byte[entry.size];
+        buffer.position(entry.offset);
+        buffer.get(result);
+        return result;
+    }
+}
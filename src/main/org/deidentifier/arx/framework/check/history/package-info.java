@@ -19,6 +19,7 @@
 /**
  * This package implements the 'history' optimization. It provides means to store a set of highly compact representations
  * of different transformations of the input dataset in a cache which implements an MRU eviction policy.
+ * Evicted snapshots can optionally be moved into a second tier, which is backed by a memory-mapped file.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
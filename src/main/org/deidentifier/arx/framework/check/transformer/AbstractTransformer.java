@@ -230,6 +230,9 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     
     /** The column map array. */
     protected final int[][][]                 columnMapArray;
+
+    /** The number of columns in the column index array and the column map array. */
+    protected int                             columnCount;
     
     /** The mode of operation *. */
     protected final ARXConfigurationInternal  config;
@@ -500,13 +503,14 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
         int index = 0;
         for (int i = 0; i < dimensions; i++) {
-            if ((projection & (1L << i)) == 0) {
+            if (i >= 64 || (projection & (1L << i)) == 0) {
                 generalizationIndexArray[index] = state[i];
                 columnIndexArray[index] = i;
                 columnMapArray[index] = hierarchies[i].getArray();
                 index++;
             }
         }
+        columnCount = index;
 
         // Store groupify
         this.groupify = groupify;
@@ -22,7 +22,9 @@ import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * The class TransformerAll.
+ * The class TransformerAll. It is used for transformations in which more than 15 columns
+ * must be generalized. Only the columns which are not covered by the projection are
+ * transformed and the loop over these columns is unrolled by a factor of four.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -56,14 +58,10 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
-        final int dimensions = data[0].length;
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple);
 
             // Call
             delegate.callAll(outtuple, i);
@@ -82,10 +80,7 @@ public class TransformerAll extends AbstractTransformer {
 
             intuple = data[element.representative];
             outtuple = buffer[element.representative];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple);
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -110,13 +105,38 @@ public class TransformerAll extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
             intuple = data[snapshot[i]];
             outtuple = buffer[snapshot[i]];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple);
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
         }
     }
+
+    /**
+     * Generalizes all columns which are not covered by the projection.
+     *
+     * @param intuple
+     * @param outtuple
+     */
+    private final void transform(final int[] intuple, final int[] outtuple) {
+        final int[] indices = columnIndexArray;
+        final int[][][] maps = columnMapArray;
+        final int[] states = generalizationIndexArray;
+        final int count = columnCount;
+        int column = 0;
+        for (; column < count - 3; column += 4) {
+            final int index0 = indices[column];
+            final int index1 = indices[column + 1];
+            final int index2 = indices[column + 2];
+            final int index3 = indices[column + 3];
+            outtuple[index0] = maps[column][intuple[index0]][states[column]];
+            outtuple[index1] = maps[column + 1][intuple[index1]][states[column + 1]];
+            outtuple[index2] = maps[column + 2][intuple[index2]][states[column + 2]];
+            outtuple[index3] = maps[column + 3][intuple[index3]][states[column + 3]];
+        }
+        for (; column < count; column++) {
+            final int index = indices[column];
+            outtuple[index] = maps[column][intuple[index]][states[column]];
+        }
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.framework.data;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -31,7 +32,10 @@ import org.deidentifier.arx.RowSet;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class Data implements Cloneable{
+public class Data implements Cloneable, Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = 5418946212851437862L;
 
     /** The outliers mask. */
     public static final int  OUTLIER_MASK        = 1 << 31;
@@ -17,6 +17,10 @@
 
 package org.deidentifier.arx.framework.data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +28,7 @@ import java.util.Set;
 
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.DataGeneralizationScheme;
+import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
 import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
@@ -35,12 +40,16 @@ import com.carrotsearch.hppc.IntObjectOpenHashMap;
 import com.carrotsearch.hppc.IntOpenHashSet;
 
 /**
- * Holds all data needed for the anonymization process.
+ * Holds all data needed for the anonymization process. Instances can be serialized,
+ * e.g. for replicating them in other processes.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class DataManager {
+public class DataManager implements Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = 3279435787305165208L;
 
     /**
      * Internal representation of attribute types. Quasi-identifiers are split
@@ -824,4 +833,43 @@ public class DataManager {
                 new Data(valsIS, headerStatic, mapStatic, dictionaryStatic) };
         return result;
     }
+
+    /**
+     * De-serialization. Initializes the microaggregation functions, whose state is transient.
+     *
+     * @param aInputStream
+     * @throws ClassNotFoundException
+     * @throws IOException
+     */
+    private void readObject(ObjectInputStream aInputStream) throws ClassNotFoundException, IOException {
+
+        // Default de-serialization
+        aInputStream.defaultReadObject();
+
+        // Initialize functions
+        for (DistributionAggregateFunction function : microaggregationFunctions) {
+            function.initialize((String[]) aInputStream.readObject(),
+                                (DataType<?>) aInputStream.readObject(),
+                                (int[][]) aInputStream.readObject());
+        }
+    }
+
+    /**
+     * Serialization.
+     *
+     * @param aOutputStream
+     * @throws IOException
+     */
+    private void writeObject(ObjectOutputStream aOutputStream) throws IOException {
+
+        // Default serialization
+        aOutputStream.defaultWriteObject();
+
+        // Write state of functions
+        for (DistributionAggregateFunction function : microaggregationFunctions) {
+            aOutputStream.writeObject(function.getDictionary());
+            aOutputStream.writeObject(function.getDataType());
+            aOutputStream.writeObject(function.getHierarchy());
+        }
+    }
 }
@@ -28,6 +28,9 @@ import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFu
  */
 public class DataManagerSubset extends DataManager {
 
+    /** SVUID */
+    private static final long serialVersionUID = -2484930577512216041L;
+
     private final DataManager source;
     
     /**
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.data;
 
+import java.io.Serializable;
+
 import com.carrotsearch.hppc.IntIntOpenHashMap;
 import com.carrotsearch.hppc.IntOpenHashSet;
 
@@ -26,7 +28,10 @@ import com.carrotsearch.hppc.IntOpenHashSet;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class GeneralizationHierarchy {
+public class GeneralizationHierarchy implements Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = 4615338914633413391L;
 
     /** Level->number of distinct values. */
     protected final int[]   distinctValues;
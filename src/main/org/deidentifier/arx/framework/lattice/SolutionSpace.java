@@ -24,7 +24,10 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.metric.InformationLoss;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongByteOpenHashMap;
 import com.carrotsearch.hppc.LongObjectOpenHashMap;
+import com.carrotsearch.hppc.LongOpenHashSet;
 
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.Lattice;
@@ -37,6 +40,22 @@ import de.linearbits.jhpl.PredictiveProperty.Direction;
  */
 public class SolutionSpace {
 
+    /** Solution spaces up to this size store static properties in a dense array */
+    private static final long                         DENSE_PROPERTIES_MAX_SIZE   = 1 << 20;
+
+    /** Flag */
+    private static final byte                         FLAG_ANONYMOUS              = 1 << 0;
+    /** Flag */
+    private static final byte                         FLAG_CHECKED                = 1 << 1;
+    /** Flag */
+    private static final byte                         FLAG_EXPANDED               = 1 << 2;
+    /** Flag */
+    private static final byte                         FLAG_FORCE_SNAPSHOT         = 1 << 3;
+    /** Flag */
+    private static final byte                         FLAG_NOT_ANONYMOUS          = 1 << 4;
+    /** Flag */
+    private static final byte                         FLAG_VISITED                = 1 << 5;
+
     /** Information loss */
     private LongObjectOpenHashMap<Object>             data                        = new LongObjectOpenHashMap<Object>();
     /** The backing JHPL lattice */
@@ -84,6 +103,11 @@ public class SolutionSpace {
     /** Information loss */
     private LongObjectOpenHashMap<InformationLoss<?>> utility                     = new LongObjectOpenHashMap<InformationLoss<?>>();
 
+    /** Static properties as bit masks, indexed by identifier, for small solution spaces */
+    private final byte[]                              flagsDense;
+    /** Static properties as bit masks, for large solution spaces */
+    private final LongByteOpenHashMap                 flagsSparse;
+
     /**
      * For de-serialization
      * @param lattice
@@ -98,12 +122,12 @@ public class SolutionSpace {
                 int lvl = getLevel(index);
                 long id = this.lattice.space().toId(index);
                 if (node.getAnonymity() == Anonymity.ANONYMOUS) {
-                    this.lattice.putProperty(index, lvl, this.getPropertyAnonymous());
+                    this.putProperty(index, id, lvl, this.getPropertyAnonymous());
                 } else if (node.getAnonymity() == Anonymity.NOT_ANONYMOUS) {
-                    this.lattice.putProperty(index, lvl, this.getPropertyNotAnonymous());
+                    this.putProperty(index, id, lvl, this.getPropertyNotAnonymous());
                 }
                 if (node.isChecked()) {
-                    this.lattice.putProperty(index, lvl, this.getPropertyChecked());
+                    this.putProperty(index, id, lvl, this.getPropertyChecked());
                     this.setInformationLoss(id, node.getMaximumInformationLoss());
                 }
             }
@@ -136,6 +160,15 @@ public class SolutionSpace {
             elements[i] = element;
         }
         this.lattice = new Lattice<Integer, Integer>(elements);
+        
+        // Create storage for static properties
+        if (lattice.numNodes() <= DENSE_PROPERTIES_MAX_SIZE) {
+            this.flagsDense = new byte[(int) lattice.numNodes()];
+            this.flagsSparse = null;
+        } else {
+            this.flagsDense = null;
+            this.flagsSparse = new LongByteOpenHashMap();
+        }
     }
     
     /**
@@ -164,7 +197,45 @@ public class SolutionSpace {
      * @return
      */
     public LongIterator getMaterializedTransformations() {
-        return lattice.listNodesAsIdentifiers();
+        
+        // Transformations with predictive properties
+        final LongArrayList result = new LongArrayList();
+        final LongOpenHashSet contained = new LongOpenHashSet();
+        for (LongIterator iterator = lattice.listNodesAsIdentifiers(); iterator.hasNext();) {
+            long id = iterator.next();
+            result.add(id);
+            contained.add(id);
+        }
+        
+        // Transformations with static properties only
+        if (flagsDense != null) {
+            for (int id = 0; id < flagsDense.length; id++) {
+                if (flagsDense[id] != 0 && !contained.contains(id)) {
+                    result.add(id);
+                }
+            }
+        } else {
+            final long[] keys = flagsSparse.keys;
+            final boolean[] allocated = flagsSparse.allocated;
+            for (int i = 0; i < keys.length; i++) {
+                if (allocated[i] && !contained.contains(keys[i])) {
+                    result.add(keys[i]);
+                }
+            }
+        }
+        
+        // Wrap
+        return new LongIterator() {
+            private int index = 0;
+            @Override
+            public boolean hasNext() {
+                return index < result.size();
+            }
+            @Override
+            public long next() {
+                return result.get(index++);
+            }
+        };
     }
 
     /**
@@ -326,6 +397,10 @@ public class SolutionSpace {
      */
     public boolean hasProperty(int[] transformation, PredictiveProperty property) {
         int[] index = toJHPL(transformation);
+        byte flag = getFlag(property);
+        if (flag != 0) {
+            return hasFlag(lattice.space().toId(index), flag);
+        }
         int level = getLevel(index);
         return lattice.hasProperty(index, level, property);
     }
@@ -415,6 +490,43 @@ public class SolutionSpace {
         setAnonymityPropertyPredictable(config.getMonotonicityOfPrivacy() == Monotonicity.FULL);
     }
 
+    /**
+     * Returns the flag used for storing the given property, zero if the property is
+     * predictive and thus stored in the backing lattice
+     * @param property
+     * @return
+     */
+    private byte getFlag(PredictiveProperty property) {
+        if (property == propertyChecked) {
+            return FLAG_CHECKED;
+        } else if (property == propertyVisited) {
+            return FLAG_VISITED;
+        } else if (property == propertyExpanded) {
+            return FLAG_EXPANDED;
+        } else if (property == propertyForceSnapshot) {
+            return FLAG_FORCE_SNAPSHOT;
+        } else if (property.getDirection() != Direction.NONE) {
+            return 0;
+        } else if (property == propertyAnonymous) {
+            return FLAG_ANONYMOUS;
+        } else if (property == propertyNotAnonymous) {
+            return FLAG_NOT_ANONYMOUS;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns whether the given flag is set for the transformation with the given identifier
+     * @param identifier
+     * @param flag
+     * @return
+     */
+    private boolean hasFlag(long identifier, byte flag) {
+        byte flags = flagsDense != null ? flagsDense[(int) identifier] : flagsSparse.get(identifier);
+        return (flags & flag) != 0;
+    }
+
     /**
      * Internal method that adds the offset
      * @param level
@@ -465,6 +577,40 @@ public class SolutionSpace {
         return lowerBound.getOrDefault(identifier, null);
     }
 
+    /**
+     * Returns whether a transformation has a given property
+     * @param transformation In JHPL's space
+     * @param identifier
+     * @param level In JHPL's space
+     * @param property
+     * @return
+     */
+    protected boolean hasProperty(int[] transformation, long identifier, int level, PredictiveProperty property) {
+        byte flag = getFlag(property);
+        if (flag != 0) {
+            return hasFlag(identifier, flag);
+        }
+        return lattice.hasProperty(transformation, level, property);
+    }
+
+    /**
+     * Sets a property of a transformation
+     * @param transformation In JHPL's space
+     * @param identifier
+     * @param level In JHPL's space
+     * @param property
+     */
+    protected void putProperty(int[] transformation, long identifier, int level, PredictiveProperty property) {
+        byte flag = getFlag(property);
+        if (flag == 0) {
+            lattice.putProperty(transformation, level, property);
+        } else if (flagsDense != null) {
+            flagsDense[(int) identifier] |= flag;
+        } else {
+            flagsSparse.put(identifier, (byte) (flagsSparse.get(identifier) | flag));
+        }
+    }
+
     /**
      * Sets data
      * @param id
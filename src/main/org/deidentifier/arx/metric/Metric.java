@@ -27,6 +27,7 @@ import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -115,6 +116,13 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
     
     /** For comparisons. */
     private static final double FACTOR           = Math.pow(10d, DIGITS);
+
+    /**
+     * Threshold for potentially precomputed metrics, which lets the metric decide automatically, whether the 
+     * precomputed variant is used, by timing it for a sample of transformations. As the decision depends on
+     * wall-clock time, it may differ between runs, and so may pruning and the results of time-limited searches.
+     */
+    public static final double  PRECOMPUTATION_THRESHOLD_AUTOMATIC = Double.NaN;
     
     /**
      * Creates a new instance of the AECS metric.
@@ -523,7 +531,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if 
-     *                  #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *                  #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *                  {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      *                  
      * @return
      */
@@ -538,7 +547,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if 
-     *                  #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *                  #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *                  {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param monotonic If set to true, the monotonic variant of the metric will be created
      * 
      * @return
@@ -552,7 +562,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if 
-     *                  #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *                  #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *                  {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param monotonic If set to true, the monotonic variant of the metric will be created
      * @param function The aggregate function to be used for comparing results
      * 
@@ -569,7 +580,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if 
-     *                  #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *                  #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *                  {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param gsFactor A factor [0,1] weighting generalization and suppression.
      *            The default value is 0.5, which means that generalization
      *            and suppression will be treated equally. A factor of 0
@@ -596,7 +608,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if 
-     *                  #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *                  #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *                  {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param gsFactor A factor [0,1] weighting generalization and suppression.
      *            The default value is 0.5, which means that generalization
      *            and suppression will be treated equally. A factor of 0
@@ -616,7 +629,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if 
-     *                  #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *                  #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *                  {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param monotonic If set to true, the monotonic variant of the metric will be created
      * @param gsFactor A factor [0,1] weighting generalization and suppression.
      *            The default value is 0.5, which means that generalization
@@ -639,7 +653,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      *
      * @param threshold The precomputed variant of the metric will be used if
-     *            #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *            #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *            {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @return
      */
     public static Metric<AbstractILMultiDimensional> createPrecomputedLossMetric(double threshold) {
@@ -651,7 +666,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      *
      * @param threshold The precomputed variant of the metric will be used if
-     *            #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *            #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *            {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param function The aggregate function to use for comparing results
      * @return
      */
@@ -665,7 +681,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      *
      * @param threshold The precomputed variant of the metric will be used if
-     *            #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *            #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *            {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param gsFactor A factor [0,1] weighting generalization and suppression.
      *            The default value is 0.5, which means that generalization
      *            and suppression will be treated equally. A factor of 0
@@ -684,7 +701,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      *
      * @param threshold The precomputed variant of the metric will be used if
-     *            #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *            #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *            {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      * @param gsFactor A factor [0,1] weighting generalization and suppression.
      *            The default value is 0.5, which means that generalization
      *            and suppression will be treated equally. A factor of 0
@@ -705,7 +723,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if
-     *            #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *            #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *            {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      *
      * @return
      */
@@ -719,7 +738,8 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      * This metric will respect attribute weights defined in the configuration.
      * 
      * @param threshold The precomputed variant of the metric will be used if
-     *            #distinctValues / #rows <= threshold for all quasi-identifiers.
+     *            #distinctValues / #rows <= threshold for all quasi-identifiers. Use
+     *            {@link #PRECOMPUTATION_THRESHOLD_AUTOMATIC} for an automatic decision.
      *
      * @param function The aggregate function to use for comparing results
      * @return
@@ -1077,6 +1097,21 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
      */
     public abstract InformationLoss<?> createMinInformationLoss();
     
+    /**
+     * Creates an accumulator for evaluating this metric for the given transformation,
+     * which is updated with each equivalence class while the groupify operator analyzes
+     * the classes. Returns null, if the metric does not support this. Metrics that return
+     * an accumulator should obtain it in <code>getInformationLossInternal(node, groupify)</code>
+     * via {@link HashGroupify#getAccumulator(Transformation)}, check that it has been created
+     * by themselves and only iterate over all classes, if it is not available.
+     *
+     * @param transformation
+     * @return
+     */
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        return null;
+    }
+
     /**
      * Returns the aggregate function of a multi-dimensional metric, null otherwise.
      *
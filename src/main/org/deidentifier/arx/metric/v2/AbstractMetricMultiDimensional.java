@@ -39,6 +39,9 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
     /** SVUID. */
     private static final long               serialVersionUID = 3909752748519119689L;
 
+    /** Value of separable terms which have not been memoized. */
+    private static final double             NOT_AVAILABLE    = Double.POSITIVE_INFINITY;
+
     /** The weights. */
     private double[]                        weights;
 
@@ -69,6 +72,9 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
     /** Header of the microaggregated data subset */
     private String[]                        microaggregationHeader;
 
+    /** Memoized separable terms. Column -> Level -> Value. */
+    private double[][]                      separableTerms;
+
 
     /**
      * Creates a new instance.
@@ -205,6 +211,20 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         return dimensionsGeneralized;
     }
     
+    /**
+     * Returns the memoized value of a term of the information loss, which only depends on the generalization
+     * level of the given column, e.g. because it is a sum over all records, which is independent of suppression.
+     * Such terms are shared by all transformations with the given level and by all threads checking them.
+     * Must only be called, if {@link #isSeparableTermAvailable(int, int)} returns true.
+     *
+     * @param column
+     * @param level
+     * @return
+     */
+    protected double getSeparableTerm(int column, int level) {
+        return separableTerms[column][level];
+    }
+
     /**
      * For backwards compatibility only.
      *
@@ -216,6 +236,26 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         this.dimensions = dimensions;
     }
     
+    /**
+     * For backwards compatibility only.
+     *
+     * @param separableTerms Column -> Level -> Value, where <code>Double.POSITIVE_INFINITY</code> represents values which are not available
+     */
+    protected void initializeSeparableTerms(double[][] separableTerms) {
+        this.separableTerms = separableTerms;
+    }
+
+    /**
+     * Returns whether a term has been memoized for the given column and level.
+     *
+     * @param column
+     * @param level
+     * @return
+     */
+    protected boolean isSeparableTermAvailable(int column, int level) {
+        return separableTerms[column][level] != NOT_AVAILABLE;
+    }
+    
     /**
      * Needed for microaggregation
      * @return
@@ -283,6 +323,13 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         Arrays.fill(min, 0d);
         this.max = new double[dimensions];
         Arrays.fill(max, Double.MAX_VALUE);
+        
+        // Separable terms
+        this.separableTerms = new double[dimensionsGeneralized][];
+        for (int i = 0; i < dimensionsGeneralized; i++) {
+            separableTerms[i] = new double[hierarchies[i].getArray()[0].length];
+            Arrays.fill(separableTerms[i], NOT_AVAILABLE);
+        }
     }
 
     /**
@@ -314,4 +361,17 @@ public abstract class AbstractMetricMultiDimensional extends Metric<AbstractILMu
         }
         this.min = min;
     }
+
+    /**
+     * Memoizes a term of the information loss, which only depends on the generalization level of the given column.
+     * The value must be computed deterministically, i.e. independently of the transformation and of the order
+     * of equivalence classes, from which it has been derived.
+     *
+     * @param column
+     * @param level
+     * @param value
+     */
+    protected void setSeparableTerm(int column, int level, double value) {
+        separableTerms[column][level] = value;
+    }
 }
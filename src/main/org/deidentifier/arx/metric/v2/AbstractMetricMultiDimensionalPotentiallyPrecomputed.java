@@ -17,13 +17,17 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.util.Random;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.InformationLoss;
 import org.deidentifier.arx.metric.InformationLossWithBound;
@@ -31,19 +35,56 @@ import org.deidentifier.arx.metric.InformationLossWithBound;
 /**
  * This class provides an abstract skeleton for the implementation of metrics
  * that can either be precomputed or not. The decision is made at runtime depending
- * on data properties.
+ * on data properties. If the threshold is {@link org.deidentifier.arx.metric.Metric#PRECOMPUTATION_THRESHOLD_AUTOMATIC},
+ * the decision is based on timing the precomputed variant for a sample of transformations. As this depends
+ * on wall-clock time, the decision and thus the lower bounds available to the search may differ between
+ * runs, which may affect pruning and the results of heuristic searches with time limits. Use an explicit
+ * threshold or {@link #setClock(Clock)} if reproducibility is required.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
 public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed extends AbstractMetricMultiDimensional {
 
+    /**
+     * A clock used for the automatic decision.
+     *
+     * @author Fabian Prasser
+     */
+    public static interface Clock {
+
+        /**
+         * Returns the current time in nanoseconds. Only differences between values are meaningful.
+         *
+         * @return
+         */
+        public long nanoTime();
+    }
+
     /** SVUID. */
     private static final long              serialVersionUID = 7278544218893194559L;
 
+    /** Automatic decision: number of rounds in which the sample is timed */
+    private static final int               AUTOMATIC_ROUNDS    = 3;
+
+    /** Automatic decision: number of transformations which are sampled */
+    private static final int               AUTOMATIC_SAMPLES   = 5;
+
+    /** Automatic decision: seed of the random generator, which makes sampling reproducible */
+    private static final long              AUTOMATIC_SEED      = 0xDEADBEEF;
+
+    /** Automatic decision: maximal overhead per transformation, relative to the time needed for transforming the data */
+    private static final double            AUTOMATIC_THRESHOLD = 0.1d;
+
     /** Is this instance precomputed. */
     private boolean                        precomputed      = false;
 
+    /** The clock used for the automatic decision, null for the system clock. */
+    private transient Clock                clock            = null;
+
+    /** Results of the timed operations, which prevents the compiler from eliminating them. */
+    private transient long                 sink             = 0;
+
     /** The threshold. */
     private final double                   threshold;
 
@@ -77,6 +118,17 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
     
     
 
+    @Override
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        if (precomputed) {
+            return precomputedMetric.createAccumulator(transformation);
+        } else {
+            return defaultMetric.createAccumulator(transformation);
+        }
+    }
+
+
+
     @Override
     public InformationLoss<?> createMaxInformationLoss() {
         if (precomputed) {
@@ -191,6 +243,15 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
                                       final GeneralizationHierarchy[] ahierarchies, 
                                       final ARXConfiguration config) {
         
+        // Automatic decision, which initializes the precomputed variant
+        if (Double.isNaN(threshold)) {
+            this.precomputed = isPrecomputedVariantEfficient(manager, definition, input, ahierarchies, config);
+            if (!precomputed) {
+                defaultMetric.initializeInternal(manager, definition, input, ahierarchies, config);
+            }
+            return;
+        }
+        
         this.precomputed = true;
         double rows = input.getDataLength();
         for (GeneralizationHierarchy hierarchy : ahierarchies) {
@@ -216,4 +277,114 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
     protected boolean isPrecomputed() {
         return this.precomputed;
     }
+
+    /**
+     * Sets the clock used for automatically deciding whether the precomputed variant is used.
+     * The clock is queried before and after initializing the precomputed variant and, in each
+     * round, before and after computing the lower bounds and before and after transforming
+     * the data for the sampled transformations. A deterministic clock makes the decision
+     * reproducible. The clock is not serialized.
+     *
+     * @param clock The clock, null for the system clock
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Initializes the precomputed variant and returns whether it should be used. The precomputed variant
+     * provides lower bounds, which may save checks, at the cost of initializing it, which is amortized over
+     * the solution space, and of computing the bounds. This overhead is compared to the time needed for
+     * transforming the data, which is part of each check. Both are timed for a sample of transformations.
+     *
+     * @param manager
+     * @param definition
+     * @param input
+     * @param hierarchies
+     * @param config
+     * @return
+     */
+    private boolean isPrecomputedVariantEfficient(final DataManager manager,
+                                                  final DataDefinition definition,
+                                                  final Data input,
+                                                  final GeneralizationHierarchy[] hierarchies,
+                                                  final ARXConfiguration config) {
+
+        // Initialize
+        long time = nanoTime();
+        precomputedMetric.initializeInternal(manager, definition, input, hierarchies, config);
+        double timeInitialization = nanoTime() - time;
+
+        // Prepare
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        SolutionSpace solutionSpace = new SolutionSpace(min, max);
+        Random random = new Random(AUTOMATIC_SEED);
+        int[][] data = input.getArray();
+        int[][][] arrays = new int[hierarchies.length][][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = hierarchies[i].getArray();
+        }
+
+        // Sample transformations
+        Transformation[] transformations = new Transformation[AUTOMATIC_SAMPLES];
+        for (int sample = 0; sample < transformations.length; sample++) {
+            int[] generalization = new int[min.length];
+            for (int i = 0; i < generalization.length; i++) {
+                generalization[i] = min[i] + random.nextInt(max[i] - min[i] + 1);
+            }
+            transformations[sample] = solutionSpace.getTransformation(generalization);
+        }
+
+        // Time in several rounds and use the fastest one, which excludes one-time costs, e.g. of compilation
+        double timeBound = Double.MAX_VALUE;
+        double timeTransformation = Double.MAX_VALUE;
+        for (int round = 0; round < AUTOMATIC_ROUNDS; round++) {
+            time = nanoTime();
+            for (Transformation transformation : transformations) {
+                if (precomputedMetric.getLowerBound(transformation) != null) {
+                    sink++;
+                }
+            }
+            timeBound = Math.min(timeBound, nanoTime() - time);
+            time = nanoTime();
+            for (Transformation transformation : transformations) {
+                sink += transform(data, arrays, transformation.getGeneralization());
+            }
+            timeTransformation = Math.min(timeTransformation, nanoTime() - time);
+        }
+
+        // Compare overhead per transformation
+        double overhead = timeInitialization / (double) solutionSpace.getSize() + timeBound / (double) AUTOMATIC_SAMPLES;
+        return overhead <= AUTOMATIC_THRESHOLD * timeTransformation / (double) AUTOMATIC_SAMPLES;
+    }
+
+    /**
+     * Returns the current time of the clock in nanoseconds.
+     *
+     * @return
+     */
+    private long nanoTime() {
+        return clock != null ? clock.nanoTime() : System.nanoTime();
+    }
+
+    /**
+     * Generalizes all records with the given transformation and returns a checksum of the result.
+     *
+     * @param data
+     * @param hierarchies
+     * @param generalization
+     * @return
+     */
+    private long transform(int[][] data, int[][][] hierarchies, int[] generalization) {
+        long checksum = 0;
+        for (int[] row : data) {
+            int hash = 1;
+            for (int column = 0; column < hierarchies.length; column++) {
+                hash = 31 * hash + hierarchies[column][row[column]][generalization[column]];
+            }
+            checksum += hash;
+        }
+        return checksum;
+    }
 }
@@ -37,18 +37,27 @@ public class DomainShareMaterialized implements DomainShare {
     /** SVUID. */
     private static final long           serialVersionUID = -8981924690395236648L;
 
+    /** The maximal number of entries in the table. */
+    private static final long           MAX_TABLE_SIZE   = 1 << 20;
+
     /** The value representing a non-existent entry. */
     private static final double         NOT_AVAILABLE    = -Double.MAX_VALUE;
 
     /** The size of the domain. */
     private final double                size;
 
-    /** One share per attribute. */
-    private final double[]              shares;
+    /** One share per attribute, null if the table has been created. */
+    private double[]                    shares;
 
-    /** If an attribute exists with different shares on different generalization levels, store the share in this map: <code>(((long)value) << 32) | (level & 0xffffffffL) -> share </code>. */
+    /** If an attribute exists with different shares on different generalization levels, store the share in this map, null if the table has been created: <code>(((long)value) << 32) | (level & 0xffffffffL) -> share </code>. */
     private transient LongDoubleOpenHashMap duplicates;
 
+    /** The number of generalization levels. */
+    private int                         levels;
+
+    /** The share of each value on each level: Level -> Value -> Share. Null if the domain is too large. */
+    private transient double[][]        table;
+
     /**
      * Creates a new set of domain shares derived from the given attribute.
      *
@@ -119,6 +128,10 @@ public class DomainShareMaterialized implements DomainShare {
                 }
             }
         }
+
+        // Create table
+        this.levels = encodedHierarchy[0].length;
+        this.createTable();
     }
 
     /**
@@ -140,6 +153,12 @@ public class DomainShareMaterialized implements DomainShare {
      */
     @Override
     public double getShare(int value, int level) {
+        if (table != null) {
+            return table[level][value];
+        }
+
+        // Used for large domains and for instances de-serialized from older versions,
+        // which do not know their number of levels
         double share = shares[value];
         if (share >= 0) {
             return share;
@@ -149,6 +168,50 @@ public class DomainShareMaterialized implements DomainShare {
         }
     }
 
+    /**
+     * Re-creates the array and the map of duplicates from the table.
+     *
+     * @param shares
+     * @param duplicates
+     */
+    private void createShares(double[] shares, LongDoubleOpenHashMap duplicates) {
+        for (int value = 0; value < shares.length; value++) {
+            double share = table[0][value];
+            shares[value] = share;
+            for (int level = 1; level < levels; level++) {
+                if (table[level][value] != share) {
+                    shares[value] = -share;
+                    long key = (((long) value) << 32) | (level & 0xffffffffL);
+                    duplicates.put(key, table[level][value]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the table of shares from the array and the map of duplicates, which are dropped
+     * afterwards. The table is not created, if it would be too large.
+     */
+    private void createTable() {
+        if ((long) levels * (long) shares.length > MAX_TABLE_SIZE) {
+            return;
+        }
+        this.table = new double[levels][shares.length];
+        for (int value = 0; value < shares.length; value++) {
+            double share = shares[value];
+            for (int level = 0; level < levels; level++) {
+                if (share >= 0) {
+                    table[level][value] = share;
+                } else {
+                    long key = (((long) value) << 32) | (level & 0xffffffffL);
+                    table[level][value] = duplicates.getOrDefault(key, -share);
+                }
+            }
+        }
+        this.shares = null;
+        this.duplicates = null;
+    }
+
     /**
      * De-serialization.
      *
@@ -163,6 +226,11 @@ public class DomainShareMaterialized implements DomainShare {
 
         // Read map
         duplicates = IO.readLongDoubleOpenHashMap(aInputStream);
+
+        // Create table, if the number of levels is known
+        if (levels != 0) {
+            createTable();
+        }
     }
 
     /**
@@ -173,8 +241,21 @@ public class DomainShareMaterialized implements DomainShare {
      */
     private void writeObject(ObjectOutputStream aOutputStream) throws IOException {
 
+        // Re-create the array and the map of duplicates, if the table has been created
+        double[] shares = this.shares;
+        LongDoubleOpenHashMap duplicates = this.duplicates;
+        if (table != null) {
+            shares = new double[table[0].length];
+            duplicates = new LongDoubleOpenHashMap();
+            createShares(shares, duplicates);
+        }
+
         // Default serialization
-        aOutputStream.defaultWriteObject();
+        ObjectOutputStream.PutField fields = aOutputStream.putFields();
+        fields.put("size", size);
+        fields.put("shares", shares);
+        fields.put("levels", levels);
+        aOutputStream.writeFields();
         
         // Write map
         IO.writeLongDoubleOpenHashMap(aOutputStream, duplicates);
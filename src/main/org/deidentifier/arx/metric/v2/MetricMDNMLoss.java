@@ -26,6 +26,7 @@ import org.deidentifier.arx.aggregates.HierarchyBuilderIntervalBased;
 import org.deidentifier.arx.aggregates.HierarchyBuilderRedactionBased;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -40,6 +41,90 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  */
 public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
 
+    /**
+     * Sums up the non-normalized loss of each dimension. For generalized dimensions, the loss of all records,
+     * including suppressed records, is a separable term, which only depends on the generalization level of the
+     * dimension. If it has not been memoized, the number of records per generalized value is counted, from which
+     * the term is derived. Suppressed classes are accounted for with a correction term.
+     */
+    private static class Accumulator implements HashGroupifyAccumulator {
+
+        /** The metric which created this accumulator */
+        private final MetricMDNMLoss                  metric;
+
+        /** The transformation */
+        private final int[]                           transformation;
+
+        /** The number of generalized dimensions */
+        private final int                             dimensionsGeneralized;
+
+        /** The number of aggregated dimensions */
+        private final int                             dimensionsAggregated;
+
+        /** The index of the first microaggregated attribute */
+        private final int                             microaggregationStart;
+
+        /** The microaggregation functions */
+        private final DistributionAggregateFunction[] microaggregationFunctions;
+
+        /** Generalized dimensions: the number of records per value, null if the separable term has been memoized */
+        private final int[][]                         counts;
+
+        /** Generalized dimensions: the shares of suppressed records */
+        private final double[]                        suppressed;
+
+        /** Generalized dimensions: the loss induced by suppression. Aggregated dimensions: the loss */
+        private final double[]                        result;
+
+        /**
+         * Creates a new instance
+         * @param metric
+         * @param transformation
+         */
+        private Accumulator(MetricMDNMLoss metric, Transformation transformation) {
+            this.metric = metric;
+            this.transformation = transformation.getGeneralization();
+            this.dimensionsGeneralized = metric.getDimensionsGeneralized();
+            this.dimensionsAggregated = metric.getDimensionsAggregated();
+            this.microaggregationStart = metric.getMicroaggregationStartIndex();
+            this.microaggregationFunctions = metric.getMicroaggregationFunctions();
+            this.counts = new int[dimensionsGeneralized][];
+            for (int dimension = 0; dimension < dimensionsGeneralized; dimension++) {
+                if (!metric.isSeparableTermAvailable(dimension, this.transformation[dimension])) {
+                    this.counts[dimension] = new int[metric.domainSizes[dimension]];
+                }
+            }
+            this.suppressed = new double[dimensionsGeneralized];
+            this.result = new double[metric.getDimensions()];
+        }
+
+        @Override
+        public void add(HashGroupifyEntry entry) {
+            if (entry.count > 0) {
+                double gFactor = metric.gFactor;
+                double sFactor = metric.sFactor;
+                for (int dimension = 0; dimension < dimensionsGeneralized; dimension++) {
+                    int value = entry.key[dimension];
+                    if (counts[dimension] != null) {
+                        counts[dimension][value] += entry.count;
+                    }
+                    if (!entry.isNotOutlier) {
+                        int level = transformation[dimension];
+                        double share = (double) entry.count * metric.shares[dimension].getShare(value, level);
+                        suppressed[dimension] += share;
+                        result[dimension] += sFactor == 1d ? entry.count : share + sFactor * ((double) entry.count - share);
+                    }
+                }
+                for (int dimension = 0; dimension < dimensionsAggregated; dimension++) {
+                    double share = (double) entry.count * microaggregationFunctions[dimension].getMeanError(entry.distributions[microaggregationStart + dimension]);
+                    result[dimensionsGeneralized + dimension] += entry.isNotOutlier ? share * gFactor :
+                                         (sFactor == 1d ? entry.count : share + sFactor * ((double) entry.count - share));
+                    // Note: we ignore the bound, as we cannot compute it
+                }
+            }
+        }
+    }
+
     /** SUID. */
     private static final long serialVersionUID = -573670902335136600L;
 
@@ -49,6 +134,9 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
     /** Domain shares for each dimension. */
     private DomainShare[]     shares;
 
+    /** Number of values in the domain of each dimension, including generalized values. */
+    private int[]             domainSizes;
+
     /** TODO: We must override this for backward compatibility. Remove, when re-implemented. */
     private final double      gFactor;
     
@@ -95,6 +183,11 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         this.gFactor = gsFactor <= 0.5d ? 1d            : 1d - 2d * (gsFactor - 0.5d);
     }
     
+    @Override
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        return new Accumulator(this, transformation);
+    }
+    
     /**
      * Returns the configuration of this metric.
      *
@@ -141,37 +234,18 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
     protected ILMultiDimensionalWithBound getInformationLossInternal(Transformation node, HashGroupify g) {
         
         // Prepare
-        int dimensions = getDimensions();
         int dimensionsGeneralized = getDimensionsGeneralized();
         int dimensionsAggregated = getDimensionsAggregated();
-        int microaggregationStart = getMicroaggregationStartIndex();
-        DistributionAggregateFunction[] microaggregationFunctions = getMicroaggregationFunctions();
-        
-        int[] transformation = node.getGeneralization();
-        double[] result = new double[dimensions];
-        double[] bound = new double[dimensions];
 
         // Compute NDS and lower bound
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            if (m.count>0) {
-                for (int dimension=0; dimension<dimensionsGeneralized; dimension++){
-                    int value = m.key[dimension];
-                    int level = transformation[dimension];
-                    double share = (double)m.count * shares[dimension].getShare(value, level);
-                    result[dimension] += m.isNotOutlier ? share * gFactor :
-                                         (sFactor == 1d ? m.count : share + sFactor * ((double)m.count - share));
-                    bound[dimension] += share * gFactor;
-                }
-                for (int dimension=0; dimension<dimensionsAggregated; dimension++){
-                    
-                    double share = (double)m.count * microaggregationFunctions[dimension].getMeanError(m.distributions[microaggregationStart + dimension]);
-                    result[dimensionsGeneralized + dimension] += m.isNotOutlier ? share * gFactor :
-                                         (sFactor == 1d ? m.count : share + sFactor * ((double)m.count - share));
-                    // Note: we ignore the bound, as we cannot compute it
-                }
-            }
-            m = m.nextOrdered;
+        Accumulator accumulator = getAccumulator(node, g);
+        double[] terms = getSeparableTerms(accumulator);
+        double[] result = accumulator.result.clone();
+        double[] bound = new double[getDimensions()];
+        for (int dimension=0; dimension<dimensionsGeneralized; dimension++){
+            // The shares of all records, of which the shares of suppressed records are replaced
+            result[dimension] += Math.max(0d, terms[dimension] - accumulator.suppressed[dimension]) * gFactor;
+            bound[dimension] = terms[dimension] * gFactor;
         }
         
         // Normalize
@@ -235,20 +309,22 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         int[] transformation = node.getGeneralization();
         double[] bound = new double[dimensions];
 
-        // Compute lower bound
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            if (m.count>0) {
-                for (int dimension=0; dimension<dimensionsGeneralized; dimension++){
-                    int value = m.key[dimension];
-                    int level = transformation[dimension];
-                    double share = (double)m.count * shares[dimension].getShare(value, level);
-                    bound[dimension] += share * gFactor;
-                }
-                // Note: we ignore microaggregation, as we cannot compute a bound for it
+        // Use memoized terms, if available for all dimensions. Otherwise, iterate over all classes.
+        boolean available = true;
+        for (int dimension=0; dimension<dimensionsGeneralized && available; dimension++){
+            available = isSeparableTermAvailable(dimension, transformation[dimension]);
+        }
+        if (available) {
+            for (int dimension=0; dimension<dimensionsGeneralized; dimension++){
+                bound[dimension] = getSeparableTerm(dimension, transformation[dimension]) * gFactor;
+            }
+        } else {
+            double[] terms = getSeparableTerms(getAccumulator(node, g));
+            for (int dimension=0; dimension<dimensionsGeneralized; dimension++){
+                bound[dimension] = terms[dimension] * gFactor;
             }
-            m = m.nextOrdered;
         }
+        // Note: we ignore microaggregation, as we cannot compute a bound for it
         
         // Normalize
         for (int dimension=0; dimension<dimensionsGeneralized; dimension++){
@@ -280,12 +356,14 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
 
         // Compute domain shares
         this.shares = new DomainShare[hierarchies.length];
+        this.domainSizes = new int[hierarchies.length];
         for (int i=0; i<shares.length; i++) {
             
             // Extract info
             String attribute = input.getHeader()[i];
             String[][] hierarchy = definition.getHierarchy(attribute);
             HierarchyBuilder<?> builder = definition.getHierarchyBuilder(attribute);
+            domainSizes[i] = input.getDictionary().getMapping()[i].length;
             
             // Create shares for redaction-based hierarchies
             if ((builder instanceof HierarchyBuilderRedactionBased) &&
@@ -318,6 +396,71 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         super.setMax(max);
     }
 
+    /**
+     * Returns the accumulator which has been updated while analyzing the classes, if available.
+     * Otherwise, all classes are iterated.
+     * 
+     * @param node
+     * @param groupify
+     * @return
+     */
+    private Accumulator getAccumulator(Transformation node, HashGroupify groupify) {
+        Accumulator accumulator = getFusedAccumulator(node, groupify);
+        if (accumulator == null) {
+            accumulator = new Accumulator(this, node);
+            HashGroupifyEntry m = groupify.getFirstEquivalenceClass();
+            while (m != null) {
+                accumulator.add(m);
+                m = m.nextOrdered;
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Returns the accumulator which has been updated while analyzing the classes, null if it is not available.
+     * 
+     * @param node
+     * @param groupify
+     * @return
+     */
+    private Accumulator getFusedAccumulator(Transformation node, HashGroupify groupify) {
+        HashGroupifyAccumulator accumulator = groupify.getAccumulator(node);
+        if (accumulator instanceof Accumulator && ((Accumulator) accumulator).metric == this) {
+            return (Accumulator) accumulator;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the separable terms, i.e. the sums of the shares of all records, for all generalized dimensions.
+     * Terms which have not been memoized are derived from the counts collected by the accumulator, in the
+     * order of values, which makes them independent of the order of classes, and are memoized.
+     * 
+     * @param accumulator
+     * @return
+     */
+    private double[] getSeparableTerms(Accumulator accumulator) {
+        double[] terms = new double[getDimensionsGeneralized()];
+        for (int dimension = 0; dimension < terms.length; dimension++) {
+            int level = accumulator.transformation[dimension];
+            int[] counts = accumulator.counts[dimension];
+            if (counts == null) {
+                terms[dimension] = getSeparableTerm(dimension, level);
+            } else {
+                double term = 0d;
+                for (int value = 0; value < counts.length; value++) {
+                    if (counts[value] != 0) {
+                        term += (double) counts[value] * shares[dimension].getShare(value, level);
+                    }
+                }
+                setSeparableTerm(dimension, level, term);
+                terms[dimension] = term;
+            }
+        }
+        return terms;
+    }
+
     /**
      * Returns whether this metric handles microaggregation
      * @return
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -42,6 +43,36 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  */
 public class MetricMDNMPrecision extends AbstractMetricMultiDimensional {
 
+    /**
+     * Counts suppressed and unsuppressed tuples.
+     */
+    private static class Accumulator implements HashGroupifyAccumulator {
+
+        /** The metric which created this accumulator */
+        private final MetricMDNMPrecision metric;
+
+        /** The number of suppressed tuples */
+        private int                       suppressedTuples   = 0;
+
+        /** The number of unsuppressed tuples */
+        private int                       unsuppressedTuples = 0;
+
+        /**
+         * Creates a new instance
+         * @param metric
+         */
+        private Accumulator(MetricMDNMPrecision metric) {
+            this.metric = metric;
+        }
+
+        @Override
+        public void add(HashGroupifyEntry entry) {
+            // if (entry.count > 0) is given implicitly
+            unsuppressedTuples += entry.isNotOutlier ? entry.count : 0;
+            suppressedTuples += entry.isNotOutlier ? 0 : entry.count;
+        }
+    }
+
     /** SVUID. */
     private static final long serialVersionUID = 7972929684708525849L;
 
@@ -107,6 +138,11 @@ public class MetricMDNMPrecision extends AbstractMetricMultiDimensional {
     protected MetricMDNMPrecision(double gsFactor, AggregateFunction function){
         super(false, false, gsFactor, function);
     }
+
+    @Override
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        return new Accumulator(this);
+    }
     
     /**
      * Returns the configuration of this metric.
@@ -132,16 +168,9 @@ public class MetricMDNMPrecision extends AbstractMetricMultiDimensional {
         
         double gFactor = super.getGeneralizationFactor();
         double sFactor = super.getSuppressionFactor();
-        int suppressedTuples = 0;
-        int unsuppressedTuples = 0;
-        
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            // if (m.count > 0) is given implicitly
-            unsuppressedTuples += m.isNotOutlier ? m.count : 0;
-            suppressedTuples += m.isNotOutlier ? 0 : m.count;
-            m = m.nextOrdered;
-        }
+        Accumulator accumulator = getAccumulator(node, g);
+        int suppressedTuples = accumulator.suppressedTuples;
+        int unsuppressedTuples = accumulator.unsuppressedTuples;
         
         double[] result = new double[getDimensions()];
         for (int i = 0; i<heights.length; i++) {
@@ -233,6 +262,28 @@ public class MetricMDNMPrecision extends AbstractMetricMultiDimensional {
         }
     }
     
+    /**
+     * Returns the accumulator which has been updated while analyzing the classes, if available.
+     * Otherwise, all classes are iterated.
+     * 
+     * @param node
+     * @param groupify
+     * @return
+     */
+    private Accumulator getAccumulator(Transformation node, HashGroupify groupify) {
+        HashGroupifyAccumulator fused = groupify.getAccumulator(node);
+        if (fused instanceof Accumulator && ((Accumulator) fused).metric == this) {
+            return (Accumulator) fused;
+        }
+        Accumulator accumulator = new Accumulator(this);
+        HashGroupifyEntry m = groupify.getFirstEquivalenceClass();
+        while (m != null) {
+            accumulator.add(m);
+            m = m.nextOrdered;
+        }
+        return accumulator;
+    }
+
     /**
      * Does this metric handle microaggregation
      * @return
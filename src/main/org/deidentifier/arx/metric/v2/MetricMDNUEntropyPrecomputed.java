@@ -46,9 +46,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     /** SVUID. */
     private static final long   serialVersionUID = 8053878428909814308L;
 
-    /** Not available in the cache. */
-    private static final double NOT_AVAILABLE    = Double.POSITIVE_INFINITY;
-
     /** Log 2. */
     private static final double LOG2             = Math.log(2);
 
@@ -65,9 +62,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     /** Cardinalities. */
     private Cardinalities cardinalities;
 
-    /** Column -> Level -> Value. */
-    private double[][]    cache;
-
     /** Column -> Id -> Level -> Output. */
     private int[][][]     hierarchies;
 
@@ -166,8 +160,10 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
 
             // Check for cached value
             final int transformation = node.getGeneralization()[column];
-            double value = cache[column][transformation];
-            if (value == NOT_AVAILABLE) {
+            double value;
+            if (isSeparableTermAvailable(column, transformation)) {
+                value = getSeparableTerm(column, transformation);
+            } else {
                 value = 0d;
                 final int[][] cardinality = cardinalities[column];
                 final int[][] hierarchy = hierarchies[column];
@@ -179,7 +175,7 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
                         value += a * log2(a / b);
                     }
                 }
-                cache[column][transformation] = value;
+                setSeparableTerm(column, transformation, value);
             }
             result[column] = value * gFactor;
         }
@@ -243,12 +239,12 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     protected void initialize(double[][] cache, int[][][] cardinalities, int[][][] hierarchies) {
         
         // Initialize data structures
-        this.cache = cache;
         this.hierarchies = hierarchies;
         this.cardinalities = new Cardinalities(cardinalities);
 
         // Initialize weights
         super.initialize(hierarchies.length);
+        super.initializeSeparableTerms(cache);
 
         // Compute a reasonable maximum
         double[] min = new double[hierarchies.length];
@@ -280,13 +276,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
         double gFactor = super.getGeneralizationFactor();
         double sFactor = super.getSuppressionFactor();
         
-        // Create a cache for the results
-        this.cache = new double[hierarchies.length][];
-        for (int i = 0; i < cache.length; i++) {
-            cache[i] = new double[hierarchies[i].getArray()[0].length];
-            Arrays.fill(cache[i], NOT_AVAILABLE);
-        }
-        
         // Create reference to the hierarchies
         final int[][] data = input.getArray();
         this.hierarchies = new int[data[0].length][][];
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.metric.v2;
 
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
@@ -61,6 +62,12 @@ public class MetricMDPrecision extends MetricMDNMPrecision {
         super(true, true, function);
     }
 
+    @Override
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        // Monotonic precision does not depend on the classes
+        return null;
+    }
+
     /**
      * Returns the configuration of this metric.
      *
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.metric.v2;
 
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
@@ -32,6 +33,37 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  */
 public class MetricSDAECS extends AbstractMetricSingleDimensional {
 
+    /**
+     * Counts the classes with and without suppression.
+     */
+    private static class Accumulator implements HashGroupifyAccumulator {
+
+        /** The metric which created this accumulator */
+        private final MetricSDAECS metric;
+
+        /** The number of groups with suppression, i.e. of groups which are not suppressed */
+        private double             groupsWithSuppression    = 0;
+
+        /** The number of groups without suppression */
+        private double             groupsWithoutSuppression = 0;
+
+        /**
+         * Creates a new instance
+         * @param metric
+         */
+        private Accumulator(MetricSDAECS metric) {
+            this.metric = metric;
+        }
+
+        @Override
+        public void add(HashGroupifyEntry entry) {
+            if (entry.count > 0) {
+                groupsWithSuppression += entry.isNotOutlier ? 1 : 0;
+                groupsWithoutSuppression++;
+            }
+        }
+    }
+
     /** SVUID. */
     private static final long serialVersionUID = 8076459507565472479L;
 
@@ -61,6 +93,11 @@ public class MetricSDAECS extends AbstractMetricSingleDimensional {
         super.setNumTuples((double)rowCount);
     }
     
+    @Override
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        return new Accumulator(this);
+    }
+    
     @Override
     public ILSingleDimensional createMaxInformationLoss() {
         Double rows = getNumTuples();
@@ -104,20 +141,12 @@ public class MetricSDAECS extends AbstractMetricSingleDimensional {
     protected ILSingleDimensionalWithBound getInformationLossInternal(final Transformation node, final HashGroupify g) {
 
         // The total number of groups with and without suppression
-        double groupsWithSuppression = 0;
-        double groupsWithoutSuppression = 0;
+        Accumulator accumulator = getAccumulator(node, g);
+        double groupsWithSuppression = accumulator.groupsWithSuppression;
+        double groupsWithoutSuppression = accumulator.groupsWithoutSuppression;
         double gFactor = super.getSuppressionFactor(); // Note: factors are switched on purpose
         double sFactor = super.getGeneralizationFactor(); // Note: factors are switched on purpose
         
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            if (m.count > 0) {
-                groupsWithSuppression += m.isNotOutlier ? 1 : 0;
-                groupsWithoutSuppression++;
-            }
-            m = m.nextOrdered;
-        }
-        
         // If there are suppressed tuples, they form one additional group
         boolean someRecordsSuppressed = (groupsWithSuppression != groupsWithoutSuppression);
         groupsWithSuppression *= gFactor;
@@ -137,15 +166,32 @@ public class MetricSDAECS extends AbstractMetricSingleDimensional {
     protected ILSingleDimensional getLowerBoundInternal(Transformation node,
                                                         HashGroupify groupify) {
         // Ignore suppression for the lower bound
-        int groups = 0;
+        double groups = getAccumulator(node, groupify).groupsWithoutSuppression;
+        
+        // Compute AECS
+        double gFactor = super.getSuppressionFactor(); // Note: factors are switched on purpose
+        return new ILSingleDimensional(getNumTuples() / (groups * gFactor));
+    }
+
+    /**
+     * Returns the accumulator which has been updated while analyzing the classes, if available.
+     * Otherwise, all classes are iterated.
+     * 
+     * @param node
+     * @param groupify
+     * @return
+     */
+    private Accumulator getAccumulator(Transformation node, HashGroupify groupify) {
+        HashGroupifyAccumulator fused = groupify.getAccumulator(node);
+        if (fused instanceof Accumulator && ((Accumulator) fused).metric == this) {
+            return (Accumulator) fused;
+        }
+        Accumulator accumulator = new Accumulator(this);
         HashGroupifyEntry m = groupify.getFirstEquivalenceClass();
         while (m != null) {
-            groups += (m.count > 0) ? 1 : 0;
+            accumulator.add(m);
             m = m.nextOrdered;
         }
-        
-        // Compute AECS
-        double gFactor = super.getSuppressionFactor(); // Note: factors are switched on purpose
-        return new ILSingleDimensional(getNumTuples() / ((double)groups * gFactor));
+        return accumulator;
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.metric.v2;
 
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
@@ -30,6 +31,43 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  * @author Florian Kohlmayer
  */
 public class MetricSDNMDiscernability extends AbstractMetricSingleDimensional {
+
+    /**
+     * Sums up the discernability with and without suppression.
+     */
+    private static class Accumulator implements HashGroupifyAccumulator {
+
+        /** The metric which created this accumulator */
+        private final MetricSDNMDiscernability metric;
+
+        /** The number of rows */
+        private final double                   rows;
+
+        /** The discernability */
+        private double                         dm     = 0;
+
+        /** The discernability, ignoring suppression */
+        private double                         dmStar = 0;
+
+        /**
+         * Creates a new instance
+         * @param metric
+         */
+        private Accumulator(MetricSDNMDiscernability metric) {
+            this.metric = metric;
+            this.rows = metric.getNumTuples();
+        }
+
+        @Override
+        public void add(HashGroupifyEntry entry) {
+            if (entry.count > 0) {
+                double count = (double) entry.count;
+                double current = count * count;
+                dmStar += current;
+                dm += entry.isNotOutlier ? current : rows * count;
+            }
+        }
+    }
     
     /** SVUID. */
     private static final long serialVersionUID = -8573084860566655278L;
@@ -50,6 +88,11 @@ public class MetricSDNMDiscernability extends AbstractMetricSingleDimensional {
         super(monotonic, false);
     }
 
+    @Override
+    public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+        return new Accumulator(this);
+    }
+
     @Override
     public ILSingleDimensional createMaxInformationLoss() {
         Double rows = getNumTuples();
@@ -96,21 +139,8 @@ public class MetricSDNMDiscernability extends AbstractMetricSingleDimensional {
     
     @Override
     protected ILSingleDimensionalWithBound getInformationLossInternal(final Transformation node, final HashGroupify g) {
-        
-        double rows = getNumTuples();
-        double dm = 0;
-        double dmStar = 0;
-        HashGroupifyEntry m = g.getFirstEquivalenceClass();
-        while (m != null) {
-            if (m.count>0){
-                double count = (double)m.count;
-                double current = count * count;
-                dmStar += current;
-                dm += m.isNotOutlier ? current : rows * count;
-            }
-            m = m.nextOrdered;
-        }
-        return new ILSingleDimensionalWithBound(dm, dmStar);
+        Accumulator accumulator = getAccumulator(node, g);
+        return new ILSingleDimensionalWithBound(accumulator.dm, accumulator.dmStar);
     }
 
     @Override
@@ -121,13 +151,29 @@ public class MetricSDNMDiscernability extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation node,
                                                         HashGroupify groupify) {
-        double lowerBound = 0;
+        return new ILSingleDimensional(getAccumulator(node, groupify).dmStar);
+    }
+
+    /**
+     * Returns the accumulator which has been updated while analyzing the classes, if available.
+     * Otherwise, all classes are iterated.
+     * 
+     * @param node
+     * @param groupify
+     * @return
+     */
+    private Accumulator getAccumulator(Transformation node, HashGroupify groupify) {
+        HashGroupifyAccumulator fused = groupify.getAccumulator(node);
+        if (fused instanceof Accumulator && ((Accumulator) fused).metric == this) {
+            return (Accumulator) fused;
+        }
+        Accumulator accumulator = new Accumulator(this);
         HashGroupifyEntry m = groupify.getFirstEquivalenceClass();
         while (m != null) {
-            lowerBound += (m.count>0) ? ((double) m.count * (double) m.count) : 0;
+            accumulator.add(m);
             m = m.nextOrdered;
         }
-        return new ILSingleDimensional(lowerBound);
+        return accumulator;
     }
 }
 
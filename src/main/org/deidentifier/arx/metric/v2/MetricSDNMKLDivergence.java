@@ -32,11 +32,18 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
 /**
  * This class implements the KL Divergence metric.
  * Ashwin Machanavajjhala, Daniel Kifer, Johannes Gehrke, Muthuramakrishnan Venkitasubramaniam: 
  * L-diversity: Privacy beyond k-anonymity
  * ACM Transactions on Knowledge Discovery from Data (TKDD), Volume 1 Issue 1, March 2007 
+ * <br>
+ * The divergence sums p * log2(p / q) over all rows, where p is the input frequency of the row and q
+ * is the output frequency of its class. It is evaluated as the constant sum of p * log2(p) minus the
+ * sum of w * log2(q) over all classes, where w is the sum of the input frequencies of the rows in the
+ * class. The weights are aggregated over the distinct input tuples, whose frequencies are computed once.
  *
  * @author Fabian Prasser
  */
@@ -95,8 +102,14 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     /** Tuple matcher */
     private TupleMatcher        matcher           = null;
 
-    /** Distribution */
-    private double[]            inputDistribution = null;
+    /** A representative row of each distinct input tuple */
+    private int[]               distinctRows      = null;
+
+    /** The sum of the input frequencies of all rows of each distinct input tuple */
+    private double[]            distinctWeights   = null;
+
+    /** The sum of p * log2(p) over the input frequencies p of all rows */
+    private double              inputTerm         = 0d;
 
     /** Log 2. */
     private static final double LOG2              = Math.log(2);
@@ -168,35 +181,37 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
     @Override
     protected ILSingleDimensionalWithBound getInformationLossInternal(Transformation node, HashGroupify g) {
         
-        // Obtain number of outliers
+        // Aggregate the weights of the distinct input tuples per class
+        ObjectDoubleOpenHashMap<HashGroupifyEntry> weights = new ObjectDoubleOpenHashMap<HashGroupifyEntry>();
+        double outlierWeight = 0d;
+        int[] generalization = node.getGeneralization();
+        int[] buffer = this.matcher.createBuffer();
+        for (int i = 0; i < this.distinctRows.length; i++) {
+            HashGroupifyEntry entry = this.matcher.getEntry(this.distinctRows[i], generalization, g, buffer);
+            if (entry.isNotOutlier) {
+                weights.putOrAdd(entry, this.distinctWeights[i], this.distinctWeights[i]);
+            } else {
+                outlierWeight += this.distinctWeights[i];
+            }
+        }
+        
+        // Compute KL-Divergence for each class
+        double result = this.inputTerm;
         double outliers = 0d;
         HashGroupifyEntry m = g.getFirstEquivalenceClass();
         while (m != null) {
-            outliers += !m.isNotOutlier ? m.count : 0d;
+            if (!m.isNotOutlier) {
+                outliers += m.count;
+            } else if (weights.containsKey(m)) {
+                double outputFrequency = (double) m.count / this.tuples / getArea(m.key, generalization);
+                result -= weights.lget() * log2(outputFrequency);
+            }
             m = m.nextOrdered;
         }
         
-        // Init
-        double result = 0d;
-        
-        // For each tuple
-        for (int row = 0; row < this.inputDistribution.length; row++) {
-            
-            // Obtain frequency
-            double inputFrequency = inputDistribution[row];
-            
-            // Only if present
-            if (inputFrequency != 0d) {
-                
-                int[] generalization = node.getGeneralization();
-                HashGroupifyEntry entry = this.matcher.getEntry(row, generalization, g);
-                double outputFrequency = entry.isNotOutlier ? entry.count : outliers;
-                outputFrequency /= this.tuples;
-                outputFrequency /= entry.isNotOutlier ? getArea(entry.key, generalization) : maximalArea;
-                
-                // Compute KL-Divergence
-                result += inputFrequency * log2(inputFrequency / outputFrequency);
-            }
+        // Compute KL-Divergence for outliers
+        if (outlierWeight != 0d) {
+            result -= outlierWeight * log2(outliers / this.tuples / this.maximalArea);
         }
         
         // Return
@@ -255,26 +270,34 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
         }
         
         // Groupify
-       Map<TupleWrapper, Integer> groupify = new HashMap<TupleWrapper, Integer>();
-       for (int row = 0; row < input.getDataLength(); row++) {
-           if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
-               Integer count = groupify.get(wrapper);
-               count = count == null ? 1 : count + 1;
-               groupify.put(wrapper, count);
-           }
-       }
-       
-       // Build input distribution and compute max
-       this.max = 0d;
-       this.inputDistribution = new double[input.getArray().length];
-       for (int row = 0; row < input.getDataLength(); row++) {
-           if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
-               double frequency = groupify.get(wrapper).doubleValue() / this.tuples;
-               this.inputDistribution[row] = frequency ;
-               max += frequency * log2(frequency * maximalArea);
-           }
-       }
+        Map<TupleWrapper, Integer> groupify = new HashMap<TupleWrapper, Integer>();
+        Map<TupleWrapper, Integer> representatives = new HashMap<TupleWrapper, Integer>();
+        for (int row = 0; row < input.getDataLength(); row++) {
+            if (subset == null || subset.contains(row)) {
+                TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
+                Integer count = groupify.get(wrapper);
+                count = count == null ? 1 : count + 1;
+                groupify.put(wrapper, count);
+                if (count == 1) {
+                    representatives.put(wrapper, row);
+                }
+            }
+        }
+        
+        // Build input distribution and compute max
+        this.max = 0d;
+        this.inputTerm = 0d;
+        this.distinctRows = new int[groupify.size()];
+        this.distinctWeights = new double[groupify.size()];
+        int index = 0;
+        for (Map.Entry<TupleWrapper, Integer> entry : groupify.entrySet()) {
+            double count = entry.getValue().doubleValue();
+            double frequency = count / this.tuples;
+            this.distinctRows[index] = representatives.get(entry.getKey());
+            this.distinctWeights[index] = count * frequency;
+            this.inputTerm += count * frequency * log2(frequency);
+            this.max += count * frequency * log2(frequency * maximalArea);
+            index++;
+        }
     }
 }
@@ -37,8 +37,6 @@ public class TupleMatcher implements Serializable {
     private final int[][][] hierarchies;
     /** Data*/
     private final int[][] data;
-    /** Data*/
-    private final int[] tuple;
 
     /**
      * Creates a new instance
@@ -55,9 +53,15 @@ public class TupleMatcher implements Serializable {
         
         // Store data
         this.data = input;
-        
-        // Create tuple
-        this.tuple = new int[this.hierarchies.length];
+    }
+    
+    /**
+     * Returns a buffer that can be passed to {@link #getEntry(int, int[], HashGroupify, int[])}.
+     * Each thread must use its own buffer.
+     * @return
+     */
+    int[] createBuffer() {
+        return new int[this.hierarchies.length];
     }
     
     /**
@@ -65,9 +69,10 @@ public class TupleMatcher implements Serializable {
      * @param row
      * @param generalization
      * @param groupify
+     * @param tuple buffer
      * @return
      */
-    HashGroupifyEntry getEntry(int row, int[] generalization, HashGroupify groupify) {
+    HashGroupifyEntry getEntry(int row, int[] generalization, HashGroupify groupify, int[] tuple) {
         
         // Transform the tuple
         int[] inputtuple = data[row];
@@ -332,6 +332,15 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         this.testCase = testCase;
     }
     
+    /**
+     * Creates the anonymizer used for the test.
+     *
+     * @return
+     */
+    protected ARXAnonymizer createAnonymizer() {
+        return new ARXAnonymizer();
+    }
+    
     @Override
     @Before
     public void setUp() {
@@ -359,7 +368,7 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         final Data data = getDataObject(testCase);
         
         // Create an instance of the anonymizer
-        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXAnonymizer anonymizer = createAnonymizer();
         testCase.config.setPracticalMonotonicity(testCase.practical);
         
         // Test or warmup
@@ -470,7 +470,9 @@ public class TestAnonymization extends AbstractTest {
     @Test
     public void testSaveData() throws IOException {
         final Data data = provider.data;
-        data.getHandle().save(new File("junit_test_data.csv"), ';');
+        File file = File.createTempFile("junit_test_data", ".csv");
+        file.deleteOnExit();
+        data.getHandle().save(file, ';');
     }
     
     /**
@@ -481,7 +483,9 @@ public class TestAnonymization extends AbstractTest {
     @Test
     public void testSaveHierarchy() throws IOException {
         final Hierarchy hier = provider.age;
-        hier.save(new File("junit_test_hierarchy_age.csv"), ';');
+        File file = File.createTempFile("junit_test_hierarchy_age", ".csv");
+        file.deleteOnExit();
+        hier.save(file, ';');
     }
     
     /**
@@ -0,0 +1,113 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXWorker;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for checking transformations in worker processes. Two workers are started as local processes.
+ * The results must equal the results of sequential execution.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationDistributed extends AbstractAnonymizationTest {
+
+    /** The number of workers */
+    private static final int                     NUM_WORKERS = 2;
+
+    /** The secret shared with the workers */
+    private static final String                  SECRET      = "junit";
+
+    /** The worker processes */
+    private static final List<Process>           processes   = new ArrayList<Process>();
+
+    /** The addresses of the workers */
+    private static final List<InetSocketAddress> workers     = new ArrayList<InetSocketAddress>();
+
+    /**
+     * Returns the test cases
+     *
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return TestAnonymizationParallel.cases();
+    }
+
+    /**
+     * Starts the workers
+     *
+     * @throws IOException
+     */
+    @BeforeClass
+    public static void startWorkers() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < NUM_WORKERS; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ARXWorker.class.getName());
+            builder.environment().put(ARXWorker.ENVIRONMENT_SECRET, SECRET);
+            Process process = builder.start();
+            processes.add(process);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            workers.add(new InetSocketAddress("localhost", Integer.parseInt(reader.readLine().trim())));
+        }
+    }
+
+    /**
+     * Stops the workers
+     */
+    @AfterClass
+    public static void stopWorkers() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        processes.clear();
+        workers.clear();
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param testCase
+     */
+    public TestAnonymizationDistributed(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+
+    @Override
+    protected ARXAnonymizer createAnonymizer() {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setWorkers(workers, SECRET);
+        return anonymizer;
+    }
+}
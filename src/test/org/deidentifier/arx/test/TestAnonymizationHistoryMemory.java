@@ -0,0 +1,49 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Test for a history which is limited by the size of its compressed snapshots in bytes. A small
+ * size enforces that snapshots are evicted, also when they are moved back from the second tier.
+ * The results must equal the results obtained with the default history.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationHistoryMemory extends TestAnonymizationHistoryDisk {
+
+    /**
+     * 
+     *
+     * @param testCase
+     */
+    public TestAnonymizationHistoryMemory(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+
+    @Override
+    protected ARXAnonymizer createAnonymizer() {
+        ARXAnonymizer anonymizer = super.createAnonymizer();
+        anonymizer.setHistoryMemorySize(1 << 16);
+        return anonymizer;
+    }
+}
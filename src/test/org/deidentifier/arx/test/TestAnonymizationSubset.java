@@ -77,7 +77,7 @@ public class TestAnonymizationSubset extends AbstractAnonymizationTest {
      * @param size
      * @return
      */
-    private static DataSubset getSubset(int size) {
+    static DataSubset getSubset(int size) {
         Set<Integer> set = new HashSet<Integer>();
         Random random = new Random(0xDEADBEEF);
         for (int i = 0; i < size; i++) {
@@ -0,0 +1,167 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.framework.check.distribution.ConcurrentIntArrayDictionary;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the dictionary which is shared by the checkers of a pool.
+ *
+ * @author Fabian Prasser
+ */
+public class TestConcurrentIntArrayDictionary extends AbstractTest {
+
+    /** The number of threads */
+    private static final int THREADS    = 8;
+
+    /** The number of keys */
+    private static final int KEYS       = 10000;
+
+    /** The number of repetitions */
+    private static final int REPETITIONS = 20;
+
+    /**
+     * Threads which probe the same keys concurrently must receive the same ids, and all entries
+     * must be removed when all references have been released.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIdStability() throws Exception {
+
+        final ConcurrentIntArrayDictionary dictionary = new ConcurrentIntArrayDictionary(16);
+        List<int[]> results = execute(new Callable<int[]>() {
+            @Override
+            public int[] call() {
+                int[] ids = new int[KEYS];
+                for (int i = 0; i < KEYS; i++) {
+                    ids[i] = dictionary.probe(getKey(i));
+                }
+                return ids;
+            }
+        });
+
+        // Same ids for the same keys, different ids for different keys
+        int[] ids = results.get(0);
+        for (int[] other : results) {
+            Assert.assertArrayEquals(ids, other);
+        }
+        for (int i = 0; i < KEYS; i++) {
+            Assert.assertArrayEquals(getKey(i), dictionary.get(ids[i]));
+        }
+        Assert.assertEquals(KEYS, dictionary.size());
+
+        // Release one reference per thread and key
+        for (int thread = 0; thread < THREADS - 1; thread++) {
+            for (int i = 0; i < KEYS; i++) {
+                dictionary.decrementRefCount(ids[i]);
+            }
+        }
+        Assert.assertEquals(KEYS, dictionary.size());
+        for (int i = 0; i < KEYS; i++) {
+            dictionary.decrementRefCount(ids[i]);
+        }
+        Assert.assertEquals(0, dictionary.size());
+    }
+
+    /**
+     * While a reference to an entry is held, concurrent probing and releasing must neither
+     * change its id nor remove it. Entries without references must be removed.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testReferenceCounting() throws Exception {
+
+        final ConcurrentIntArrayDictionary dictionary = new ConcurrentIntArrayDictionary(16);
+        final int[] held = new int[KEYS / 2];
+        for (int i = 0; i < held.length; i++) {
+            held[i] = dictionary.probe(getKey(i));
+        }
+
+        execute(new Callable<int[]>() {
+            @Override
+            public int[] call() {
+                for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+                    for (int i = 0; i < KEYS; i++) {
+                        int id = dictionary.probe(getKey(i));
+                        if (i < held.length) {
+                            Assert.assertEquals(held[i], id);
+                        }
+                        Assert.assertArrayEquals(getKey(i), dictionary.get(id));
+                        dictionary.decrementRefCount(id);
+                    }
+                }
+                return null;
+            }
+        });
+
+        // Only the entries which are still referenced remain
+        Assert.assertEquals(held.length, dictionary.size());
+        for (int i = 0; i < held.length; i++) {
+            Assert.assertArrayEquals(getKey(i), dictionary.get(held[i]));
+            dictionary.decrementRefCount(held[i]);
+        }
+        Assert.assertEquals(0, dictionary.size());
+    }
+
+    /**
+     * Executes the given task in several threads and returns the results
+     *
+     * @param task
+     * @return
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private List<int[]> execute(Callable<int[]> task) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(task));
+            }
+            List<int[]> results = new ArrayList<int[]>();
+            for (Future<int[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns the key with the given number
+     *
+     * @param number
+     * @return
+     */
+    private int[] getKey(int number) {
+        return new int[] { number, number * 31, number % 7 };
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.metric.v2.DomainShare;
+import org.deidentifier.arx.metric.v2.DomainShareMaterialized;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.LongDoubleOpenHashMap;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Execution time of looking up the domain shares which are used by the loss metric. The table of
+ * shares is compared to the previous representation, which stores one share per value and a map of
+ * shares which differ between generalization levels. The hierarchies of the adult dataset are used.
+ *
+ * @author Fabian Prasser
+ */
+public class TestExecutionTimeLoss extends AbstractTest {
+
+    /**
+     * The previous representation of domain shares derived from a materialized hierarchy.
+     */
+    private static class DomainShareCompact {
+
+        /** The value representing a non-existent entry. */
+        private static final double         NOT_AVAILABLE = -Double.MAX_VALUE;
+
+        /** One share per attribute. */
+        private final double[]              shares;
+
+        /** Shares which differ between generalization levels. */
+        private final LongDoubleOpenHashMap duplicates;
+
+        /**
+         * Creates a new set of domain shares derived from the given attribute.
+         *
+         * @param rawHierarchy
+         * @param encodedValues
+         * @param encodedHierarchy
+         */
+        private DomainShareCompact(String[][] rawHierarchy, String[] encodedValues, int[][] encodedHierarchy) {
+
+            double size = rawHierarchy.length;
+            this.duplicates = new LongDoubleOpenHashMap();
+            this.shares = new double[encodedValues.length];
+            Arrays.fill(shares, NOT_AVAILABLE);
+            @SuppressWarnings("unchecked")
+            ObjectIntOpenHashMap<String>[] maps = new ObjectIntOpenHashMap[rawHierarchy[0].length];
+            for (int level = 0; level < maps.length; level++) {
+                maps[level] = new ObjectIntOpenHashMap<String>();
+            }
+
+            // Compute the share for each generalization strategy
+            for (String[] transformation : rawHierarchy) {
+                for (int level = 0; level < transformation.length; level++) {
+                    maps[level].putOrAdd(transformation[level], 1, 1);
+                }
+            }
+
+            // Transform into an array representation and handle duplicates
+            for (int[] strategy : encodedHierarchy) {
+                for (int level = 0; level < strategy.length; level++) {
+                    int value = strategy[level];
+                    double share = (double) maps[level].get(encodedValues[value]) / size;
+                    double stored = shares[value];
+                    if (stored != NOT_AVAILABLE) {
+                        if (stored == share) {
+                            continue;
+                        }
+                        if (stored >= 0d) {
+                            shares[value] = -shares[value];
+                        }
+                        duplicates.put((((long) value) << 32) | (level & 0xffffffffL), share);
+                    } else {
+                        shares[value] = share;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the share of the given value.
+         *
+         * @param value
+         * @param level
+         * @return
+         */
+        private double getShare(int value, int level) {
+            double share = shares[value];
+            if (share >= 0) {
+                return share;
+            } else {
+                long key = (((long) value) << 32) | (level & 0xffffffffL);
+                return duplicates.getOrDefault(key, -share);
+            }
+        }
+    }
+
+    /** The number of repetitions */
+    private static final int REPETITIONS = 10;
+
+    /** The number of times all shares are looked up in each repetition */
+    private static final int LOOKUPS     = 20000;
+
+    /**
+     * Compares both representations
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        // Prepare
+        List<int[][]> hierarchies = new ArrayList<int[][]>();
+        List<DomainShare> tables = new ArrayList<DomainShare>();
+        List<DomainShareCompact> compacts = new ArrayList<DomainShareCompact>();
+        for (File file : getHierarchies("./data/adult.csv")) {
+
+            // Encode
+            String[][] rawHierarchy = Hierarchy.create(file.getPath(), StandardCharsets.UTF_8, ';').getHierarchy();
+            ObjectIntOpenHashMap<String> dictionary = new ObjectIntOpenHashMap<String>();
+            List<String> encodedValues = new ArrayList<String>();
+            int[][] encodedHierarchy = new int[rawHierarchy.length][rawHierarchy[0].length];
+            for (int row = 0; row < rawHierarchy.length; row++) {
+                for (int level = 0; level < rawHierarchy[row].length; level++) {
+                    String value = rawHierarchy[row][level];
+                    if (!dictionary.containsKey(value)) {
+                        dictionary.put(value, encodedValues.size());
+                        encodedValues.add(value);
+                    }
+                    encodedHierarchy[row][level] = dictionary.get(value);
+                }
+            }
+            String[] values = encodedValues.toArray(new String[encodedValues.size()]);
+            hierarchies.add(encodedHierarchy);
+            tables.add(new DomainShareMaterialized(rawHierarchy, values, encodedHierarchy));
+            compacts.add(new DomainShareCompact(rawHierarchy, values, encodedHierarchy));
+        }
+
+        // Compare shares
+        for (int attribute = 0; attribute < hierarchies.size(); attribute++) {
+            for (int[] strategy : hierarchies.get(attribute)) {
+                for (int level = 0; level < strategy.length; level++) {
+                    Assert.assertEquals(compacts.get(attribute).getShare(strategy[level], level),
+                                        tables.get(attribute).getShare(strategy[level], level), 0d);
+                }
+            }
+        }
+
+        // Warm up
+        System.out.println("Experiment:");
+        System.out.println(" - Dataset: ./data/adult.csv");
+        System.out.println(" - Attributes: " + hierarchies.size());
+        System.out.println(" - Performing experiment:");
+        System.out.println("   * Warmup");
+        Assert.assertEquals(lookupCompact(hierarchies, compacts), lookupTable(hierarchies, tables), 0d);
+
+        // Repeat
+        long timeCompact = 0;
+        long timeTable = 0;
+        for (int i = 0; i < REPETITIONS; i++) {
+            System.out.println("   * Repetition " + (i + 1) + " of " + REPETITIONS);
+            long time = System.nanoTime();
+            double expected = lookupCompact(hierarchies, compacts);
+            timeCompact += System.nanoTime() - time;
+            time = System.nanoTime();
+            double actual = lookupTable(hierarchies, tables);
+            timeTable += System.nanoTime() - time;
+            Assert.assertEquals(expected, actual, 0d);
+        }
+        System.out.println("     -> Array and map: " + (timeCompact / REPETITIONS / 1000000L) + " [ms]");
+        System.out.println("     -> Table: " + (timeTable / REPETITIONS / 1000000L) + " [ms]");
+    }
+
+    /**
+     * Returns the hierarchy files of the given dataset
+     *
+     * @param dataset
+     * @return
+     */
+    private File[] getHierarchies(final String dataset) {
+        final String prefix = dataset.substring(dataset.lastIndexOf("/") + 1, dataset.length() - 4) + "_hierarchy_";
+        File[] files = new File(dataset.substring(0, dataset.lastIndexOf("/"))).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.startsWith(prefix) && name.endsWith(".csv");
+            }
+        });
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Looks up all shares with the previous representation and returns their sum
+     *
+     * @param hierarchies
+     * @param shares
+     * @return
+     */
+    private double lookupCompact(List<int[][]> hierarchies, List<DomainShareCompact> shares) {
+        double sum = 0d;
+        for (int i = 0; i < LOOKUPS; i++) {
+            for (int attribute = 0; attribute < hierarchies.size(); attribute++) {
+                DomainShareCompact share = shares.get(attribute);
+                for (int[] strategy : hierarchies.get(attribute)) {
+                    for (int level = 0; level < strategy.length; level++) {
+                        sum += share.getShare(strategy[level], level);
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Looks up all shares with the table and returns their sum
+     *
+     * @param hierarchies
+     * @param shares
+     * @return
+     */
+    private double lookupTable(List<int[][]> hierarchies, List<DomainShare> shares) {
+        double sum = 0d;
+        for (int i = 0; i < LOOKUPS; i++) {
+            for (int attribute = 0; attribute < hierarchies.size(); attribute++) {
+                DomainShare share = shares.get(attribute);
+                for (int[] strategy : hierarchies.get(attribute)) {
+                    for (int level = 0; level < strategy.length; level++) {
+                        sum += share.getShare(strategy[level], level);
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+}
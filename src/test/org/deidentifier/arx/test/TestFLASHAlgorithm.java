@@ -0,0 +1,110 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the FLASH algorithm on a solution space with more than Integer.MAX_VALUE transformations.
+ *
+ * @author Fabian Prasser
+ */
+public class TestFLASHAlgorithm extends AbstractTest {
+
+    /** The number of quasi-identifiers, each with a hierarchy of height two */
+    private static final int ATTRIBUTES     = 32;
+
+    /** The number of records which are unique unless one of the first quasi-identifiers is generalized */
+    private static final int OUTLIERS       = 30;
+
+    /** The maximal number of transformations which may be materialized */
+    private static final int MAX_MATERIALIZED = 10000;
+
+    /**
+     * The search must neither enumerate nor cache all transformations. The dataset consists of two
+     * equal records and of records which differ from them in exactly one of the first attributes.
+     * With suppression, a transformation is anonymous if it generalizes one of these attributes.
+     * Only a few transformations are thus not anonymous, but many are anonymous and have to be skipped.
+     *
+     * @throws IOException
+     */
+    @Test(timeout = 60000)
+    public void testLargeSolutionSpace() throws IOException {
+
+        // Define data
+        DefaultData data = Data.create();
+        String[] header = new String[ATTRIBUTES];
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            header[i] = "attribute" + i;
+        }
+        data.add(header);
+        data.add(getRecord(-1));
+        data.add(getRecord(-1));
+        for (int i = 0; i < OUTLIERS; i++) {
+            data.add(getRecord(i));
+        }
+
+        // Define hierarchies
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            DefaultHierarchy hierarchy = Hierarchy.create();
+            hierarchy.add("0", "*");
+            hierarchy.add("1", "*");
+            data.getDefinition().setAttributeType(header[i], hierarchy);
+        }
+
+        // Anonymize
+        ARXConfiguration config = ARXConfiguration.create((double) (OUTLIERS - 1) / (double) (OUTLIERS + 2), Metric.createLossMetric());
+        config.addCriterion(new KAnonymity(2));
+        config.setPracticalMonotonicity(true);
+        config.setHeuristicSearchThreshold(Integer.MAX_VALUE);
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+
+        // Check
+        Assert.assertTrue(result.getLattice().getVirtualSize() > Integer.MAX_VALUE);
+        Assert.assertTrue(result.getLattice().getSize() < MAX_MATERIALIZED);
+        Assert.assertNotNull(result.getGlobalOptimum());
+        Assert.assertEquals(Anonymity.ANONYMOUS, result.getGlobalOptimum().getAnonymity());
+    }
+
+    /**
+     * Returns a record with the given attribute set to one and all others set to zero
+     *
+     * @param attribute
+     * @return
+     */
+    private String[] getRecord(int attribute) {
+        String[] record = new String[ATTRIBUTES];
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            record[i] = i == attribute ? "1" : "0";
+        }
+        return record;
+    }
+}
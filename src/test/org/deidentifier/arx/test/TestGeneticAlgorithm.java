@@ -0,0 +1,138 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.HeuristicSearchAlgorithm;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXOptimumListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the genetic search algorithm. Without a time limit, the search terminates when
+ * the optimum has not been improved for several generations. As the random generator is
+ * seeded, the result is reproducible and independent of the number of threads.
+ *
+ * @author Fabian Prasser
+ */
+public class TestGeneticAlgorithm extends AbstractTest {
+
+    /** The number of threads used for testing whether the search stops early */
+    private static final int THREADS = 4;
+
+    /**
+     * Returns a test case
+     * @param k
+     * @return
+     */
+    private static ARXAnonymizationTestCase getTestCase(int k) {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric()).addCriterion(new KAnonymity(k));
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchTimeLimit(Integer.MAX_VALUE);
+        config.setHeuristicSearchAlgorithm(HeuristicSearchAlgorithm.GENETIC);
+        return new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+    }
+
+    /**
+     * Anonymizes the given test case
+     * @param testCase
+     * @param threads
+     * @return
+     * @throws IOException
+     */
+    private static ARXResult anonymize(ARXAnonymizationTestCase testCase, int threads) throws IOException {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setNumberOfThreads(threads);
+        return anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+    }
+
+    /**
+     * The search must find a privacy-preserving transformation
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testResult() throws IOException {
+        ARXResult result = anonymize(getTestCase(5), 1);
+        Assert.assertNotNull(result.getGlobalOptimum());
+        Assert.assertEquals(Anonymity.ANONYMOUS, result.getGlobalOptimum().getAnonymity());
+        Assert.assertEquals("0.27244475719461314", result.getGlobalOptimum().getMaximumInformationLoss().toString());
+    }
+
+    /**
+     * The result must not depend on the number of threads
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testThreads() throws IOException {
+        ARXResult sequential = anonymize(getTestCase(100), 1);
+        ARXResult parallel = anonymize(getTestCase(100), 2);
+        Assert.assertArrayEquals(sequential.getGlobalOptimum().getTransformation(), parallel.getGlobalOptimum().getTransformation());
+        Assert.assertEquals(sequential.getGlobalOptimum().getMaximumInformationLoss(), parallel.getGlobalOptimum().getMaximumInformationLoss());
+    }
+
+    /**
+     * The search must stop after the batch in which the listener requested to stop, also when
+     * using multiple threads. A generation contains more transformations than a batch.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStopEarly() throws IOException {
+        ARXAnonymizationTestCase testCase = getTestCase(5);
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setNumberOfThreads(THREADS);
+        anonymizer.setOptimumListener(new ARXOptimumListener() {
+            @Override
+            public boolean optimumFound(int[] transformation, InformationLoss<?> informationLoss) {
+                return false;
+            }
+        });
+        ARXResult result = anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+        Assert.assertNotNull(result.getGlobalOptimum());
+        Assert.assertTrue(getNumChecks(result) <= THREADS);
+    }
+
+    /**
+     * Returns the number of transformations which have been checked
+     * @param result
+     * @return
+     */
+    private static int getNumChecks(ARXResult result) {
+        int checks = 0;
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                if (node.isChecked()) {
+                    checks++;
+                }
+            }
+        }
+        return checks;
+    }
+}
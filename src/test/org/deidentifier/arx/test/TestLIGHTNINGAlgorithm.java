@@ -0,0 +1,127 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the best-first heuristic search. Without a time limit, the search is exhaustive
+ * and the information loss of the result must not depend on the number of threads.
+ *
+ * @author Fabian Prasser
+ */
+public class TestLIGHTNINGAlgorithm extends AbstractTest {
+
+    /** The time limit used for testing whether it is respected */
+    private static final int TIME_LIMIT = 200;
+
+    /** The time by which the search may exceed the limit, e.g. for completing a batch of checks */
+    private static final int TIME_SLACK = 2000;
+
+    /**
+     * Returns a test case
+     * @param metric
+     * @param timeLimit
+     * @return
+     */
+    private static ARXAnonymizationTestCase getTestCase(Metric<?> metric, int timeLimit) {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, metric).addCriterion(new KAnonymity(5));
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchTimeLimit(timeLimit);
+        return new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+    }
+
+    /**
+     * Anonymizes the given test case
+     * @param testCase
+     * @param threads
+     * @return
+     * @throws IOException
+     */
+    private static ARXResult anonymize(ARXAnonymizationTestCase testCase, int threads) throws IOException {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setNumberOfThreads(threads);
+        return anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+    }
+
+    /**
+     * Returns the number of transformations which have been checked
+     * @param result
+     * @return
+     */
+    private static int getNumChecks(ARXResult result) {
+        int checks = 0;
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                if (node.isChecked()) {
+                    checks++;
+                }
+            }
+        }
+        return checks;
+    }
+
+    /**
+     * Pruning transformations whose lower bound exceeds the optimum must not change the optimum
+     * of a monotonic metric, but reduce the number of checks. Only the precomputed variant of the
+     * metric provides lower bounds without accessing the data, so the default variant disables
+     * this kind of pruning.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBoundPruning() throws IOException {
+        ARXResult unpruned = anonymize(getTestCase(Metric.createEntropyMetric(true), Integer.MAX_VALUE), 1);
+        ARXResult pruned = anonymize(getTestCase(Metric.createPrecomputedEntropyMetric(1d, true), Integer.MAX_VALUE), 1);
+        Assert.assertEquals(unpruned.getGlobalOptimum().getMaximumInformationLoss().toString(), pruned.getGlobalOptimum().getMaximumInformationLoss().toString());
+        Assert.assertTrue(getNumChecks(pruned) < getNumChecks(unpruned));
+    }
+
+    /**
+     * The optimum found without a time limit must not depend on the number of threads
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testThreads() throws IOException {
+        ARXResult sequential = anonymize(getTestCase(Metric.createLossMetric(), Integer.MAX_VALUE), 1);
+        ARXResult parallel = anonymize(getTestCase(Metric.createLossMetric(), Integer.MAX_VALUE), 4);
+        Assert.assertEquals(sequential.getGlobalOptimum().getMaximumInformationLoss(), parallel.getGlobalOptimum().getMaximumInformationLoss());
+    }
+
+    /**
+     * The time limit must be respected when using multiple threads. Without a limit, the search takes several seconds.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testTimeLimit() throws IOException {
+        ARXResult result = anonymize(getTestCase(Metric.createLossMetric(), TIME_LIMIT), 4);
+        Assert.assertTrue(result.getTime() <= TIME_LIMIT + TIME_SLACK);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXOptimumListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the listener which is notified about new optima.
+ *
+ * @author Fabian Prasser
+ */
+public class TestOptimumListener extends AbstractTest {
+
+    /**
+     * Returns a test case
+     * @return
+     */
+    private static ARXAnonymizationTestCase getTestCase() {
+        return new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false);
+    }
+
+    /**
+     * All optima must be reported in order and the last one must be the result
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAllOptima() throws IOException {
+
+        final List<int[]> transformations = new ArrayList<int[]>();
+        final List<InformationLoss<?>> losses = new ArrayList<InformationLoss<?>>();
+        ARXAnonymizationTestCase testCase = getTestCase();
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setOptimumListener(new ARXOptimumListener() {
+            @Override
+            public boolean optimumFound(int[] transformation, InformationLoss<?> informationLoss) {
+                transformations.add(transformation);
+                losses.add(informationLoss);
+                return true;
+            }
+        });
+        ARXResult result = anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+
+        Assert.assertFalse(transformations.isEmpty());
+        for (int i = 1; i < losses.size(); i++) {
+            Assert.assertTrue(losses.get(i).compareTo(losses.get(i - 1)) <= 0);
+        }
+        int[] last = transformations.get(transformations.size() - 1);
+        Assert.assertArrayEquals(testCase.optimalTransformation, last);
+        Assert.assertArrayEquals(result.getGlobalOptimum().getTransformation(), last);
+    }
+
+    /**
+     * The search must stop when requested and return the optimum found so far
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStopEarly() throws IOException {
+
+        final List<int[]> transformations = new ArrayList<int[]>();
+        ARXAnonymizationTestCase testCase = getTestCase();
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setOptimumListener(new ARXOptimumListener() {
+            @Override
+            public boolean optimumFound(int[] transformation, InformationLoss<?> informationLoss) {
+                transformations.add(transformation);
+                return false;
+            }
+        });
+        ARXResult result = anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+
+        Assert.assertEquals(1, transformations.size());
+        Assert.assertTrue(Arrays.equals(transformations.get(0), result.getGlobalOptimum().getTransformation()));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.history.MRUCacheEntryMetadata;
+import org.deidentifier.arx.framework.check.history.SnapshotIndex;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the index of snapshots in the history, which is compared to a linear search.
+ *
+ * @author Fabian Prasser
+ */
+public class TestSnapshotIndex extends AbstractTest {
+
+    /** The maximal generalization levels */
+    private static final int[] MAX_LEVELS = { 4, 4, 5, 3, 4, 2, 5 };
+
+    /** The number of entries */
+    private static final int   ENTRIES    = 5000;
+
+    /** The number of queries */
+    private static final int   QUERIES    = 5000;
+
+    /**
+     * The index must return the same snapshot as a linear search with thousands of entries,
+     * while entries are added and removed
+     */
+    @Test
+    public void testIndex() {
+
+        Random random = new Random(0xDEADBEEF);
+        SolutionSpace solutionSpace = new SolutionSpace(new int[MAX_LEVELS.length], MAX_LEVELS);
+        SnapshotIndex index = new SnapshotIndex(MAX_LEVELS);
+        List<MRUCacheEntryMetadata> entries = new ArrayList<MRUCacheEntryMetadata>();
+
+        // Add entries
+        while (entries.size() < ENTRIES) {
+            MRUCacheEntryMetadata metadata = new MRUCacheEntryMetadata(solutionSpace.getTransformation(getTransformation(random)), random.nextInt(1000));
+            if (!contains(entries, metadata)) {
+                entries.add(metadata);
+                index.add(metadata);
+            }
+        }
+        Assert.assertEquals(ENTRIES, index.size());
+        check(random, solutionSpace, index, entries);
+
+        // Remove half of the entries
+        for (int i = 0; i < ENTRIES / 2; i++) {
+            index.remove(entries.remove(random.nextInt(entries.size())));
+        }
+        Assert.assertEquals(entries.size(), index.size());
+        check(random, solutionSpace, index, entries);
+
+        // Reuse slots
+        while (entries.size() < ENTRIES) {
+            MRUCacheEntryMetadata metadata = new MRUCacheEntryMetadata(solutionSpace.getTransformation(getTransformation(random)), random.nextInt(1000));
+            if (!contains(entries, metadata)) {
+                entries.add(metadata);
+                index.add(metadata);
+            }
+        }
+        Assert.assertEquals(ENTRIES, index.size());
+        check(random, solutionSpace, index, entries);
+
+        // Clear
+        index.clear();
+        Assert.assertEquals(0, index.size());
+        Assert.assertNull(index.get(MAX_LEVELS));
+    }
+
+    /**
+     * Compares the index to a linear search for random transformations
+     *
+     * @param random
+     * @param solutionSpace
+     * @param index
+     * @param entries
+     */
+    private void check(Random random, SolutionSpace solutionSpace, SnapshotIndex index, List<MRUCacheEntryMetadata> entries) {
+        for (int i = 0; i < QUERIES; i++) {
+            int[] transformation = getTransformation(random);
+            int level = solutionSpace.getLevel(transformation);
+            MRUCacheEntryMetadata expected = null;
+            for (MRUCacheEntryMetadata metadata : entries) {
+                if (metadata.level < level &&
+                    solutionSpace.isParentChildOrEqual(transformation, metadata.transformation) &&
+                    (expected == null || metadata.length < expected.length ||
+                     (metadata.length == expected.length && metadata.id < expected.id))) {
+                    expected = metadata;
+                }
+            }
+            Assert.assertSame(expected, index.get(transformation));
+        }
+    }
+
+    /**
+     * Returns whether the list contains an entry for the same transformation
+     *
+     * @param entries
+     * @param metadata
+     * @return
+     */
+    private boolean contains(List<MRUCacheEntryMetadata> entries, MRUCacheEntryMetadata metadata) {
+        for (MRUCacheEntryMetadata entry : entries) {
+            if (entry.id == metadata.id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a random transformation
+     *
+     * @param random
+     * @return
+     */
+    private int[] getTransformation(Random random) {
+        int[] transformation = new int[MAX_LEVELS.length];
+        for (int i = 0; i < transformation.length; i++) {
+            transformation[i] = random.nextInt(MAX_LEVELS[i] + 1);
+        }
+        return transformation;
+    }
+
+    /**
+     * The snapshot of the transformation itself must not be returned, but snapshots of predecessors
+     */
+    @Test
+    public void testEqualTransformation() {
+        SolutionSpace solutionSpace = new SolutionSpace(new int[MAX_LEVELS.length], MAX_LEVELS);
+        SnapshotIndex index = new SnapshotIndex(MAX_LEVELS);
+        int[] transformation = { 1, 1, 1, 1, 1, 1, 1 };
+        index.add(new MRUCacheEntryMetadata(solutionSpace.getTransformation(transformation), 1));
+        Assert.assertNull(index.get(transformation.clone()));
+        Assert.assertNotNull(index.get(new int[] { 2, 1, 1, 1, 1, 1, 1 }));
+        Assert.assertTrue(Arrays.equals(transformation, index.get(MAX_LEVELS).transformation));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the statistics about the transitions used for checking transformations.
+ *
+ * @author Fabian Prasser
+ */
+public class TestTransitionStatistics extends AbstractTest {
+
+    /**
+     * Anonymizes a test case with the given number of threads
+     * @param threads
+     * @return
+     * @throws IOException
+     */
+    private static ARXResult anonymize(int threads) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5));
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false);
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setNumberOfThreads(threads);
+        return anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+    }
+
+    /**
+     * Checks the statistics of the given result
+     * @param result
+     */
+    private static void check(ARXResult result) {
+        double rollup = result.getFractionOfChecksWithRollup();
+        double snapshot = result.getFractionOfChecksWithSnapshot();
+        double unoptimized = result.getFractionOfChecksWithoutOptimization();
+        Assert.assertEquals(1d, rollup + snapshot + unoptimized, 1e-9);
+        Assert.assertTrue(unoptimized > 0d);
+        Assert.assertTrue(rollup + snapshot > 0d);
+    }
+
+    /**
+     * Statistics of parallel execution
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallel() throws IOException {
+        check(anonymize(4));
+    }
+
+    /**
+     * Statistics of sequential execution
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSequential() throws IOException {
+        check(anonymize(1));
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyAccumulator;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.Metric.AggregateFunction;
+import org.deidentifier.arx.metric.v2.MetricMDNMLoss;
+import org.deidentifier.arx.metric.v2.MetricMDNMPrecision;
+import org.deidentifier.arx.metric.v2.MetricSDAECS;
+import org.deidentifier.arx.metric.v2.MetricSDDiscernability;
+import org.deidentifier.arx.metric.v2.MetricSDNMDiscernability;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for utility measures which are evaluated while the groupify operator analyzes the classes.
+ * The results must be identical to the results obtained by iterating over all classes afterwards.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsAccumulator extends AbstractTest {
+
+    /**
+     * AECS, which may not use an accumulator.
+     */
+    private static class AECS extends MetricSDAECS {
+
+        /** SVUID */
+        private static final long serialVersionUID = 4591390357316452766L;
+
+        /** Whether an accumulator is used */
+        private final boolean     fused;
+
+        /**
+         * Creates a new instance
+         * @param fused
+         */
+        private AECS(boolean fused) {
+            super(0.3d);
+            this.fused = fused;
+        }
+
+        @Override
+        public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+            return fused ? super.createAccumulator(transformation) : null;
+        }
+    }
+
+    /**
+     * Monotonic discernability, which may not use an accumulator.
+     */
+    private static class Discernability extends MetricSDDiscernability {
+
+        /** SVUID */
+        private static final long serialVersionUID = -2402391542393870839L;
+
+        /** Whether an accumulator is used */
+        private final boolean     fused;
+
+        /**
+         * Creates a new instance
+         * @param fused
+         */
+        private Discernability(boolean fused) {
+            super();
+            this.fused = fused;
+        }
+
+        @Override
+        public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+            return fused ? super.createAccumulator(transformation) : null;
+        }
+    }
+
+    /**
+     * Loss, which may not use an accumulator.
+     */
+    private static class Loss extends MetricMDNMLoss {
+
+        /** SVUID */
+        private static final long serialVersionUID = 6519513954102335390L;
+
+        /** Whether an accumulator is used */
+        private final boolean     fused;
+
+        /**
+         * Creates a new instance
+         * @param fused
+         */
+        private Loss(boolean fused) {
+            super(0.3d, AggregateFunction.ARITHMETIC_MEAN);
+            this.fused = fused;
+        }
+
+        @Override
+        public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+            return fused ? super.createAccumulator(transformation) : null;
+        }
+    }
+
+    /**
+     * Non-monotonic discernability, which may not use an accumulator.
+     */
+    private static class NMDiscernability extends MetricSDNMDiscernability {
+
+        /** SVUID */
+        private static final long serialVersionUID = 1870255386931390463L;
+
+        /** Whether an accumulator is used */
+        private final boolean     fused;
+
+        /**
+         * Creates a new instance
+         * @param fused
+         */
+        private NMDiscernability(boolean fused) {
+            super();
+            this.fused = fused;
+        }
+
+        @Override
+        public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+            return fused ? super.createAccumulator(transformation) : null;
+        }
+    }
+
+    /**
+     * Non-monotonic precision, which may not use an accumulator.
+     */
+    private static class Precision extends MetricMDNMPrecision {
+
+        /** SVUID */
+        private static final long serialVersionUID = -6405284862207917498L;
+
+        /** Whether an accumulator is used */
+        private final boolean     fused;
+
+        /**
+         * Creates a new instance
+         * @param fused
+         */
+        private Precision(boolean fused) {
+            super(0.3d, AggregateFunction.ARITHMETIC_MEAN);
+            this.fused = fused;
+        }
+
+        @Override
+        public HashGroupifyAccumulator createAccumulator(Transformation transformation) {
+            return fused ? super.createAccumulator(transformation) : null;
+        }
+    }
+
+    /**
+     * Test for AECS
+     * @throws IOException
+     */
+    @Test
+    public void testAECS() throws IOException {
+        compare(new AECS(true), new AECS(false));
+    }
+
+    /**
+     * Test for monotonic discernability
+     * @throws IOException
+     */
+    @Test
+    public void testDiscernability() throws IOException {
+        compare(new Discernability(true), new Discernability(false));
+    }
+
+    /**
+     * Test for loss
+     * @throws IOException
+     */
+    @Test
+    public void testLoss() throws IOException {
+        compare(new Loss(true), new Loss(false));
+    }
+
+    /**
+     * Test for non-monotonic discernability
+     * @throws IOException
+     */
+    @Test
+    public void testNMDiscernability() throws IOException {
+        compare(new NMDiscernability(true), new NMDiscernability(false));
+    }
+
+    /**
+     * Test for non-monotonic precision
+     * @throws IOException
+     */
+    @Test
+    public void testPrecision() throws IOException {
+        compare(new Precision(true), new Precision(false));
+    }
+
+    /**
+     * Anonymizes the dataset with and without suppression as well as with microaggregation,
+     * and compares the information loss of all transformations
+     *
+     * @param fused
+     * @param unfused
+     * @throws IOException
+     */
+    private void compare(Metric<?> fused, Metric<?> unfused) throws IOException {
+        for (double suppression : new double[] { 0d, 0.04d }) {
+            for (boolean microaggregation : new boolean[] { false, true }) {
+                String message = "Suppression: " + suppression + ", microaggregation: " + microaggregation;
+                ARXResult expected = anonymize(unfused, suppression, microaggregation);
+                ARXResult actual = anonymize(fused, suppression, microaggregation);
+                ARXNode[][] expectedLevels = expected.getLattice().getLevels();
+                ARXNode[][] actualLevels = actual.getLattice().getLevels();
+                Assert.assertEquals(message, expectedLevels.length, actualLevels.length);
+                for (int level = 0; level < expectedLevels.length; level++) {
+                    Assert.assertEquals(message, expectedLevels[level].length, actualLevels[level].length);
+                    for (int index = 0; index < expectedLevels[level].length; index++) {
+                        ARXNode expectedNode = expectedLevels[level][index];
+                        ARXNode actualNode = actualLevels[level][index];
+                        Assert.assertArrayEquals(message, expectedNode.getTransformation(), actualNode.getTransformation());
+                        Assert.assertEquals(message, expectedNode.getAnonymity(), actualNode.getAnonymity());
+                        assertEquals(message, expectedNode.getMinimumInformationLoss(), actualNode.getMinimumInformationLoss());
+                        assertEquals(message, expectedNode.getMaximumInformationLoss(), actualNode.getMaximumInformationLoss());
+                    }
+                }
+                Assert.assertArrayEquals(message, expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation());
+            }
+        }
+    }
+
+    /**
+     * Anonymizes the adult dataset with the given metric. A class-based criterion is needed,
+     * as classes are otherwise not analyzed by the groupify operator.
+     *
+     * @param metric
+     * @param suppression
+     * @param microaggregation
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(Metric<?> metric, double suppression, boolean microaggregation) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(suppression, metric);
+        config.addCriterion(new KAnonymity(5));
+        config.addCriterion(new DistinctLDiversity("occupation", 3));
+        Data data = AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "occupation", "./data/adult.csv", 0d, null, false));
+        if (microaggregation) {
+            data.getDefinition().setAttributeType("age", MicroAggregationFunction.createArithmeticMean());
+            data.getDefinition().setDataType("age", DataType.INTEGER);
+        }
+        return new ARXAnonymizer().anonymize(data, config);
+    }
+
+    /**
+     * Asserts that both losses are identical
+     *
+     * @param message
+     * @param expected
+     * @param actual
+     */
+    private void assertEquals(String message, InformationLoss<?> expected, InformationLoss<?> actual) {
+        if (expected == null || actual == null) {
+            Assert.assertSame(message, expected, actual);
+            return;
+        }
+        Assert.assertEquals(message, expected.toString(), actual.toString());
+        Assert.assertEquals(message, 0, expected.compareTo(actual));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.criteria.Inclusion;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests for the KL-Divergence metric.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestUtilityMetricsKLDivergence extends AbstractAnonymizationTest {
+    
+    /**
+     * Returns the test cases
+     *
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              /* 0 */{ new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, Metric.createKLDivergenceMetric()).addCriterion(new KAnonymity(5)), "./data/adult.csv", 57.95047233773289, new int[] { 1, 4, 1, 1, 3, 2, 0, 2, 0 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createKLDivergenceMetric()).addCriterion(new KAnonymity(100)), "./data/adult.csv", 46.34192505621224, new int[] { 1, 4, 0, 2, 3, 1, 0, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, Metric.createKLDivergenceMetric()).addCriterion(new KAnonymity(5)).addCriterion(new Inclusion(TestAnonymizationSubset.getSubset(20000))), "./data/adult.csv", 32.25198853632319, new int[] { 1, 4, 0, 2, 3, 2, 1, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createKLDivergenceMetric()).addCriterion(new KAnonymity(100)).addCriterion(new Inclusion(TestAnonymizationSubset.getSubset(20000))), "./data/adult.csv", 30.096316851712455, new int[] { 1, 4, 1, 2, 2, 1, 0, 2, 1 }, false) },
+        });
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param testCase
+     */
+    public TestUtilityMetricsKLDivergence(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.Metric.AggregateFunction;
+import org.deidentifier.arx.metric.v2.AbstractMetricMultiDimensionalPotentiallyPrecomputed;
+import org.deidentifier.arx.metric.v2.AbstractMetricMultiDimensionalPotentiallyPrecomputed.Clock;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the automatic decision whether the precomputed variant of a metric is used,
+ * with a clock which returns predefined durations.
+ *
+ * @author Fabian Prasser
+ */
+public class TestUtilityMetricsPrecomputationDecision extends AbstractTest {
+
+    /**
+     * A clock which returns predefined durations. Calls are interpreted as pairs, the first one
+     * starting and the second one ending a measurement: initialization, followed by lower bounds
+     * and transformation in each round.
+     *
+     * @author Fabian Prasser
+     */
+    private static class ScriptedClock implements Clock {
+
+        /** Duration of the initialization */
+        private final long initialization;
+        /** Duration of computing lower bounds */
+        private final long bound;
+        /** Duration of transforming data */
+        private final long transformation;
+        /** Number of calls */
+        private int        calls = 0;
+        /** Current time */
+        private long       time  = 0;
+
+        /**
+         * Creates a new instance
+         * @param initialization
+         * @param bound
+         * @param transformation
+         */
+        private ScriptedClock(long initialization, long bound, long transformation) {
+            this.initialization = initialization;
+            this.bound = bound;
+            this.transformation = transformation;
+        }
+
+        @Override
+        public long nanoTime() {
+            int call = calls++;
+            if (call % 2 == 1) {
+                int measurement = call / 2;
+                time += measurement == 0 ? initialization : (measurement % 2 == 1 ? bound : transformation);
+            }
+            return time;
+        }
+    }
+
+    /**
+     * The precomputed variant must be used if its overhead is small
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testPrecomputed() throws IOException {
+        Assert.assertTrue(isPrecomputed(new ScriptedClock(1000, 1, 1000000)));
+    }
+
+    /**
+     * The default variant must be used if the overhead of the precomputed variant is large
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNotPrecomputed() throws IOException {
+        Assert.assertFalse(isPrecomputed(new ScriptedClock(1000, 1000000, 1)));
+    }
+
+    /**
+     * The default variant must be used if initializing the precomputed variant is expensive
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInitializationExpensive() throws IOException {
+        Assert.assertFalse(isPrecomputed(new ScriptedClock(Long.MAX_VALUE / 2, 1, 1000)));
+    }
+
+    /**
+     * Performs an anonymization with the given clock and returns whether the precomputed variant was used.
+     * The result must not depend on the decision.
+     *
+     * @param clock
+     * @return
+     * @throws IOException
+     */
+    private boolean isPrecomputed(Clock clock) throws IOException {
+
+        Metric<?> metric = Metric.createPrecomputedLossMetric(Metric.PRECOMPUTATION_THRESHOLD_AUTOMATIC, AggregateFunction.RANK);
+        ((AbstractMetricMultiDimensionalPotentiallyPrecomputed) metric).setClock(clock);
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, metric).addCriterion(new KAnonymity(5)), "./data/adult.csv", 0d, null, false);
+        ARXResult result = new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+        boolean precomputed = metric.getConfiguration().isPrecomputed();
+
+        ARXAnonymizationTestCase reference = new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, Metric.createLossMetric(AggregateFunction.RANK)).addCriterion(new KAnonymity(5)), "./data/adult.csv", 0d, null, false);
+        ARXResult expected = new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(reference), reference.config);
+        Assert.assertArrayEquals(expected.getGlobalOptimum().getTransformation(), result.getGlobalOptimum().getTransformation());
+        return precomputed;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for warm-starting the heuristic search with the lattice of a previous anonymization process.
+ * Without a time limit, the search is exhaustive and the information loss of the result must equal
+ * the information loss obtained without a warm start.
+ *
+ * @author Fabian Prasser
+ */
+public class TestWarmStart extends AbstractTest {
+
+    /**
+     * Returns a test case
+     * @param k
+     * @return
+     */
+    private static ARXAnonymizationTestCase getTestCase(int k) {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric()).addCriterion(new KAnonymity(k));
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchTimeLimit(Integer.MAX_VALUE);
+        return new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+    }
+
+    /**
+     * Anonymizes the given test case
+     * @param testCase
+     * @param previous
+     * @return
+     * @throws IOException
+     */
+    private static ARXResult anonymize(ARXAnonymizationTestCase testCase, ARXResult previous) throws IOException {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        if (previous != null) {
+            anonymizer.setWarmStart(previous.getLattice());
+        }
+        return anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+    }
+
+    /**
+     * Warm start with different parameters
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDifferentParameters() throws IOException {
+        ARXResult previous = anonymize(getTestCase(100), null);
+        ARXResult cold = anonymize(getTestCase(5), null);
+        ARXResult warm = anonymize(getTestCase(5), previous);
+        Assert.assertEquals(cold.getGlobalOptimum().getMaximumInformationLoss(), warm.getGlobalOptimum().getMaximumInformationLoss());
+    }
+
+    /**
+     * Warm start with the same parameters
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSameParameters() throws IOException {
+        ARXResult cold = anonymize(getTestCase(5), null);
+        ARXResult warm = anonymize(getTestCase(5), cold);
+        Assert.assertEquals(cold.getGlobalOptimum().getMaximumInformationLoss(), warm.getGlobalOptimum().getMaximumInformationLoss());
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2016 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXWorker;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.RemoteObjectInputStream;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the protection of workers against unauthorized access.
+ *
+ * @author Fabian Prasser
+ */
+public class TestWorkerSecurity extends AbstractTest {
+
+    /**
+     * An object which records whether it has been de-serialized
+     *
+     * @author Fabian Prasser
+     */
+    public static class Probe implements Serializable {
+
+        /** SVUID */
+        private static final long serialVersionUID = -2171716339484567215L;
+
+        /** Whether an instance has been de-serialized */
+        private static volatile boolean deserialized = false;
+
+        /** Padding */
+        private final byte[]            padding      = new byte[1024];
+
+        /**
+         * De-serialization
+         *
+         * @param stream
+         * @throws IOException
+         * @throws ClassNotFoundException
+         */
+        private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+            stream.defaultReadObject();
+            deserialized = padding != null;
+        }
+    }
+
+    /** The secret */
+    private static final String SECRET = "junit";
+
+    /** The worker */
+    private ARXWorker           worker;
+
+    /**
+     * Starts a worker
+     *
+     * @throws IOException
+     */
+    @Before
+    public void startWorker() throws IOException {
+        worker = new ARXWorker(0, SECRET);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                worker.run();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the worker
+     */
+    @After
+    public void stopWorker() {
+        worker.stop();
+    }
+
+    /**
+     * Workers must only listen on the loopback interface by default
+     */
+    @Test
+    public void testLoopbackByDefault() {
+        Assert.assertTrue(worker.getAddress().isLoopbackAddress());
+    }
+
+    /**
+     * Only the classes needed for the protocol must be de-serialized
+     *
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testFilter() throws IOException, ClassNotFoundException {
+        Assert.assertArrayEquals(new int[] { 1, 2 }, (int[]) read(new int[] { 1, 2 }));
+        Assert.assertEquals("test", read("test"));
+        try {
+            read(new File("test"));
+            Assert.fail("Class must be rejected");
+        } catch (InvalidClassException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Anonymization must fail when using a wrong secret
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWrongSecret() throws IOException {
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addCriterion(new KAnonymity(5)), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false);
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setWorkers(Arrays.asList(new InetSocketAddress(worker.getAddress(), worker.getPort())), "wrong");
+        try {
+            anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), testCase.config);
+            Assert.fail("Authentication must fail");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Objects sent without authentication must not be de-serialized
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testUnauthenticated() throws IOException {
+
+        Socket socket = new Socket(worker.getAddress(), worker.getPort());
+        try {
+            ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+            output.writeObject(new Probe());
+            output.flush();
+
+            // The worker must close the connection
+            InputStream input = socket.getInputStream();
+            while (input.read() != -1) {
+                // Drain
+            }
+        } catch (IOException e) {
+            // Connection reset
+        } finally {
+            socket.close();
+        }
+        Assert.assertFalse(Probe.deserialized);
+    }
+
+    /**
+     * Writes and reads the given object
+     *
+     * @param object
+     * @return
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private Object read(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(object);
+        output.close();
+        ObjectInputStream input = new RemoteObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return input.readObject();
+        } finally {
+            input.close();
+        }
+    }
+}